@@ -5,6 +5,7 @@ import com.jozufozu.flywheel.core.AtlasStitcher;
 import com.jozufozu.flywheel.core.Contexts;
 import com.jozufozu.flywheel.core.Materials;
 import com.jozufozu.flywheel.core.PartialModel;
+import com.jozufozu.flywheel.core.model.ModelCache;
 import com.jozufozu.flywheel.vanilla.VanillaInstances;
 
 import net.minecraftforge.eventbus.api.IEventBus;
@@ -24,6 +25,7 @@ public class FlywheelClient {
 		modEventBus.addListener(Materials::flwInit);
 		modEventBus.addListener(PartialModel::onModelRegistry);
 		modEventBus.addListener(PartialModel::onModelBake);
+		modEventBus.addListener(ModelCache::onModelBake);
 
 		VanillaInstances.init();
 	}
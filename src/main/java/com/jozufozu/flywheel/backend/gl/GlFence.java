@@ -0,0 +1,55 @@
+package com.jozufozu.flywheel.backend.gl;
+
+import org.lwjgl.opengl.GL32;
+
+import com.jozufozu.flywheel.backend.Backend;
+
+/**
+ * A sync object marking a point in the GL command stream that the CPU can wait on.
+ */
+public class GlFence {
+
+	private static final long TIMEOUT_NANOS = 1_000_000_000L;
+	/**
+	 * How many timeouts to sit through before giving up on the GPU.
+	 */
+	private static final int MAX_RETRIES = 5;
+
+	private long handle;
+
+	/**
+	 * Place a fence after all commands issued so far, replacing any previous one.
+	 */
+	public void insert() {
+		delete();
+		handle = GL32.glFenceSync(GL32.GL_SYNC_GPU_COMMANDS_COMPLETE, 0);
+	}
+
+	/**
+	 * Block until the GPU has passed this fence. Returns immediately if there is no fence.
+	 * Stops waiting if the wait fails or keeps timing out, so a lost context can't hang the render thread.
+	 */
+	public void clientWait() {
+		if (handle == 0) return;
+
+		int result = GL32.GL_TIMEOUT_EXPIRED;
+		for (int i = 0; i <= MAX_RETRIES && result == GL32.GL_TIMEOUT_EXPIRED; i++) {
+			result = GL32.glClientWaitSync(handle, GL32.GL_SYNC_FLUSH_COMMANDS_BIT, TIMEOUT_NANOS);
+		}
+
+		if (result == GL32.GL_WAIT_FAILED) {
+			Backend.log.error("Waiting on a fence failed, the sync object or context is no longer valid");
+		} else if (result == GL32.GL_TIMEOUT_EXPIRED) {
+			Backend.log.error("Gave up waiting on a fence after " + (MAX_RETRIES + 1) + " timeouts");
+		}
+
+		delete();
+	}
+
+	public void delete() {
+		if (handle != 0) {
+			GL32.glDeleteSync(handle);
+			handle = 0;
+		}
+	}
+}
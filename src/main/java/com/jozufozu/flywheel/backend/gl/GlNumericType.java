@@ -10,6 +10,8 @@ import javax.annotation.Nullable;
 
 import org.lwjgl.opengl.GL11;
 
+import com.jozufozu.flywheel.backend.gl.buffer.VecBufferWriter;
+
 import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.api.distmarker.OnlyIn;
 
@@ -50,6 +52,16 @@ public enum GlNumericType {
 		return this.glEnum;
 	}
 
+	public void castAndBuffer(VecBufferWriter writer, int val) {
+		if (this == UBYTE || this == BYTE) {
+			writer.put((byte) val);
+		} else if (this == USHORT || this == SHORT) {
+			writer.putShort((short) val);
+		} else if (this == UINT || this == INT) {
+			writer.putInt(val);
+		}
+	}
+
 	public void castAndBuffer(ByteBuffer buf, int val) {
 		if (this == UBYTE || this == BYTE) {
 			buf.put((byte) val);
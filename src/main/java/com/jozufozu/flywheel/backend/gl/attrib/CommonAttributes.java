@@ -18,4 +18,8 @@ public class CommonAttributes {
 	public static final VertexAttribSpec LIGHT = new VertexAttribSpec(GlNumericType.UBYTE, 2, true);
 
 	public static final VertexAttribSpec NORMALIZED_BYTE = new VertexAttribSpec(GlNumericType.BYTE, 1, true);
+
+	public static final VertexAttribSpec COMPACT_POS = new VertexAttribSpec(GlNumericType.SHORT, 3, true);
+	public static final VertexAttribSpec OCTAHEDRAL_NORMAL = new VertexAttribSpec(GlNumericType.BYTE, 2, true);
+	public static final VertexAttribSpec COMPACT_UV = new VertexAttribSpec(GlNumericType.USHORT, 2, true);
 }
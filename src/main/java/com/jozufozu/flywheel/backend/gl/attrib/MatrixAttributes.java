@@ -7,6 +7,10 @@ import com.jozufozu.flywheel.backend.gl.GlNumericType;
 public enum MatrixAttributes implements IAttribSpec {
 	MAT3(3, 3),
 	MAT4(4, 4),
+	/**
+	 * The top three rows of an affine transform, one row per attribute. The bottom row is always {@code 0, 0, 0, 1}.
+	 */
+	MAT3X4(3, 4),
 	;
 
 	private final int rows;
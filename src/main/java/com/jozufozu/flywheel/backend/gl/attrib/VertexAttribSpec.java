@@ -38,4 +38,9 @@ public class VertexAttribSpec implements IAttribSpec {
 	public int getAttributeCount() {
 		return attributeCount;
 	}
+
+	@Override
+	public String toString() {
+		return type + "x" + count + (normalized ? "n" : "");
+	}
 }
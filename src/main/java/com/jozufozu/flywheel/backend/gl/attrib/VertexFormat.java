@@ -2,6 +2,7 @@ package com.jozufozu.flywheel.backend.gl.attrib;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 
 public class VertexFormat {
 
@@ -30,8 +31,19 @@ public class VertexFormat {
 		return stride;
 	}
 
+	public List<IAttribSpec> getAttributes() {
+		return Collections.unmodifiableList(allAttributes);
+	}
+
 	public void vertexAttribPointers(int index) {
-		int offset = 0;
+		vertexAttribPointers(index, 0);
+	}
+
+	/**
+	 * Point attributes at data starting {@code baseOffset} bytes into the bound buffer.
+	 */
+	public void vertexAttribPointers(int index, int baseOffset) {
+		int offset = baseOffset;
 		for (IAttribSpec spec : this.allAttributes) {
 			spec.vertexAttribPointer(stride, index, offset);
 			index += spec.getAttributeCount();
@@ -39,6 +51,14 @@ public class VertexFormat {
 		}
 	}
 
+	/**
+	 * Describes the layout, stable across sessions. Usable as a key for cached vertex data.
+	 */
+	@Override
+	public String toString() {
+		return allAttributes.toString();
+	}
+
 	public static Builder builder() {
 		return new Builder();
 	}
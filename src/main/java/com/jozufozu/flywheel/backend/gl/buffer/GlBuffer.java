@@ -5,6 +5,7 @@ import java.nio.ByteBuffer;
 import org.lwjgl.opengl.GL15;
 import org.lwjgl.opengl.GL20;
 import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL31;
 
 import com.jozufozu.flywheel.backend.Backend;
 import com.jozufozu.flywheel.backend.gl.GlObject;
@@ -53,9 +54,47 @@ public class GlBuffer extends GlObject {
 		GL15.glBufferData(type.glEnum, directBuffer, usage.glEnum);
 	}
 
+	/**
+	 * Upload client memory into part of this buffer.
+	 *
+	 * @param offset  The offset in this buffer, in bytes.
+	 * @param address The address of the data to upload.
+	 * @param length  The number of bytes to upload.
+	 */
+	public void subData(long offset, long address, long length) {
+		GL15.nglBufferSubData(type.glEnum, offset, length, address);
+	}
+
+	/**
+	 * Let the driver throw away part of this buffer's contents. Does nothing if that isn't supported.
+	 */
+	public void invalidate(long offset, long length) {
+		Backend.getInstance().compat.invalidateSubdata.invalidateBufferSubData(handle(), offset, length);
+	}
+
+	/**
+	 * Copy part of this buffer into another buffer without going through client memory.
+	 * Leaves nothing bound to the copy targets.
+	 */
+	public void copyTo(GlBuffer dst, long srcOffset, long dstOffset, long length) {
+		bind(GlBufferType.COPY_READ_BUFFER);
+		dst.bind(GlBufferType.COPY_WRITE_BUFFER);
+		GL31.glCopyBufferSubData(GL31.GL_COPY_READ_BUFFER, GL31.GL_COPY_WRITE_BUFFER, srcOffset, dstOffset, length);
+		dst.unbind(GlBufferType.COPY_WRITE_BUFFER);
+		unbind(GlBufferType.COPY_READ_BUFFER);
+	}
+
 	public MappedBuffer getBuffer(int offset, int length) {
+		return getBuffer(offset, length, GL30.GL_MAP_WRITE_BIT);
+	}
+
+	/**
+	 * Map a range of this buffer with the given access flags.
+	 * If mapping ranges is not supported, the whole buffer is mapped and the flags are ignored.
+	 */
+	public MappedBuffer getBuffer(int offset, int length, int access) {
 		if (Backend.getInstance().compat.mapBufferRange != MapBufferRange.UNSUPPORTED) {
-			return new MappedBufferRange(this, offset, length, GL30.GL_MAP_WRITE_BIT);
+			return new MappedBufferRange(this, offset, length, access);
 		} else {
 			MappedFullBuffer fullBuffer = new MappedFullBuffer(this, MappedBufferUsage.WRITE_ONLY);
 			fullBuffer.position(offset);
@@ -0,0 +1,35 @@
+package com.jozufozu.flywheel.backend.gl.buffer;
+
+import org.lwjgl.system.MemoryUtil;
+
+/**
+ * A {@link MappedBuffer} over plain client memory.
+ *
+ * <p>
+ *     Nothing is ever mapped from or unmapped back to a GL buffer, so {@link #flush()} is a no-op.
+ *     This lets code written against MappedBuffer serialize into off-heap staging memory.
+ * </p>
+ */
+public class MappedClientBuffer extends MappedBuffer {
+
+	public MappedClientBuffer() {
+		super(null);
+	}
+
+	/**
+	 * Point this buffer at a new block of memory.
+	 *
+	 * @param address The address of the first byte.
+	 * @param length  The number of bytes that can be written.
+	 * @return This buffer.
+	 */
+	public MappedClientBuffer wrap(long address, int length) {
+		setInternal(MemoryUtil.memByteBuffer(address, length));
+		return this;
+	}
+
+	@Override
+	protected void checkAndMap() {
+		// always "mapped"
+	}
+}
@@ -0,0 +1,173 @@
+package com.jozufozu.flywheel.backend.gl.buffer;
+
+import static org.lwjgl.system.MemoryUtil.NULL;
+
+import java.nio.ByteBuffer;
+
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL44;
+import org.lwjgl.system.MemoryUtil;
+
+import com.jozufozu.flywheel.backend.Backend;
+import com.jozufozu.flywheel.backend.gl.GlFence;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+/**
+ * An immutable buffer that is mapped once, persistently and coherently, and split into a ring of regions.
+ *
+ * <p>
+ *     Each frame that something changed, the CPU moves on to the next region and writes into it while the GPU may
+ *     still be reading from the others. A fence is placed after the draws that read a region and waited on before
+ *     the region is written again. There is no map/unmap in the hot path.
+ * </p>
+ * <p>
+ *     Every region remembers which byte ranges changed since it was last written, so each change is copied once
+ *     into each region as the ring comes around.
+ * </p>
+ */
+public class PersistentGlBuffer extends GlBuffer {
+
+	public static final int DEFAULT_REGIONS = 3;
+
+	private static final int FLAGS = GL30.GL_MAP_WRITE_BIT | GL44.GL_MAP_PERSISTENT_BIT | GL44.GL_MAP_COHERENT_BIT;
+	private static final int MAX_PENDING_RANGES = 64;
+
+	private final int regionCount;
+	private final GlFence[] fences;
+	private final IntArrayList[] pending;
+
+	private int regionSize;
+	private long ptr = NULL;
+	private int current = -1;
+
+	public PersistentGlBuffer(GlBufferType type) {
+		this(type, DEFAULT_REGIONS);
+	}
+
+	public PersistentGlBuffer(GlBufferType type, int regionCount) {
+		super(type, GlBufferUsage.DYNAMIC_DRAW);
+		this.regionCount = regionCount;
+		this.fences = new GlFence[regionCount];
+		this.pending = new IntArrayList[regionCount];
+
+		for (int i = 0; i < regionCount; i++) {
+			fences[i] = new GlFence();
+			pending[i] = new IntArrayList();
+		}
+	}
+
+	/**
+	 * Throw away the current storage and allocate {@code regionCount} regions of the given size.
+	 * Immutable storage cannot be resized, so this creates a new GL buffer, leaving it bound.
+	 * All regions start out empty.
+	 */
+	public void allocRegions(int regionSize) {
+		if (ptr != NULL) {
+			// deleting the buffer also unmaps it, and the driver holds onto it until the GPU is done with it
+			deleteInternal(handle());
+			setHandle(GL15.glGenBuffers());
+		}
+
+		this.regionSize = regionSize;
+		long totalSize = (long) regionSize * regionCount;
+
+		bind();
+		Backend.getInstance().compat.bufferStorage.bufferStorage(type, totalSize, FLAGS);
+		ByteBuffer mapped = Backend.getInstance().compat.mapBufferRange.mapBuffer(type, 0, totalSize, FLAGS);
+		ptr = MemoryUtil.memAddress(mapped);
+
+		for (IntArrayList ranges : pending) {
+			ranges.clear();
+		}
+		current = -1;
+	}
+
+	public int getRegionSize() {
+		return regionSize;
+	}
+
+	public int getRegionCount() {
+		return regionCount;
+	}
+
+	/**
+	 * @return The offset in bytes of the region being written to and drawn from.
+	 */
+	public int getRegionOffset() {
+		return Math.max(current, 0) * regionSize;
+	}
+
+	/**
+	 * Mark a byte range as changed in every region.
+	 */
+	public void markDirty(int start, int end) {
+		for (IntArrayList ranges : pending) {
+			if (ranges.size() >= MAX_PENDING_RANGES * 2) {
+				// too many scattered changes, just rewrite everything between them
+				int first = Integer.MAX_VALUE;
+				int last = 0;
+				for (int i = 0; i < ranges.size(); i += 2) {
+					first = Math.min(first, ranges.getInt(i));
+					last = Math.max(last, ranges.getInt(i + 1));
+				}
+				ranges.clear();
+				ranges.add(first);
+				ranges.add(last);
+			}
+
+			ranges.add(start);
+			ranges.add(end);
+		}
+	}
+
+	/**
+	 * @return True if the region currently drawn from is missing changes, and a new region should be written.
+	 */
+	public boolean isCurrentRegionStale() {
+		return current < 0 || !pending[current].isEmpty();
+	}
+
+	/**
+	 * Move on to the next region, waiting for the GPU to finish reading from it,
+	 * and bring it up to date by copying the changed ranges from client memory laid out the same way.
+	 *
+	 * @param src   The address of the client copy.
+	 * @param limit The number of valid bytes in the client copy.
+	 */
+	public void writeNextRegion(long src, int limit) {
+		current = (current + 1) % regionCount;
+		fences[current].clientWait();
+
+		long dst = ptr + getRegionOffset();
+		IntArrayList ranges = pending[current];
+		for (int i = 0; i < ranges.size(); i += 2) {
+			int start = ranges.getInt(i);
+			int end = Math.min(ranges.getInt(i + 1), limit);
+
+			if (end > start) {
+				MemoryUtil.memCopy(src + start, dst + start, end - start);
+			}
+		}
+		ranges.clear();
+	}
+
+	/**
+	 * Call after issuing the draws that read from the current region.
+	 */
+	public void fence() {
+		if (current >= 0) {
+			fences[current].insert();
+		}
+	}
+
+	@Override
+	protected void deleteInternal(int handle) {
+		for (GlFence fence : fences) {
+			fence.delete();
+		}
+		super.deleteInternal(handle);
+		ptr = NULL;
+	}
+}
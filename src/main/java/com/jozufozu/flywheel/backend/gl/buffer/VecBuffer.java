@@ -36,9 +36,9 @@ public class VecBuffer {
 	}
 
 	public VecBuffer putFloatArray(float[] floats) {
-
-		internal.asFloatBuffer().put(floats);
-		internal.position(internal.position() + floats.length * 4);
+		for (float f : floats) {
+			internal.putFloat(f);
+		}
 
 		return this;
 	}
@@ -0,0 +1,154 @@
+package com.jozufozu.flywheel.backend.gl.buffer;
+
+import java.nio.ByteBuffer;
+
+import org.lwjgl.system.MemoryUtil;
+
+/**
+ * Writes sequentially to raw memory, with the same put methods as {@link VecBuffer}.
+ *
+ * <p>
+ *     Individual puts are not bounds checked. Callers are expected to {@link #reserve} the space for a whole record
+ *     (one vertex, one instance, one quad worth of indices...) before writing it, so there is a single range check
+ *     per record instead of one per field.
+ * </p>
+ */
+public class VecBufferWriter {
+
+	private long ptr;
+	private long end;
+
+	public VecBufferWriter(long address, long length) {
+		this.ptr = address;
+		this.end = address + length;
+	}
+
+	/**
+	 * Write into a ByteBuffer, starting at its position and ending at its limit.
+	 * The buffer must be direct, and its position is not updated.
+	 */
+	public static VecBufferWriter of(ByteBuffer buffer) {
+		return new VecBufferWriter(MemoryUtil.memAddress(buffer), buffer.remaining());
+	}
+
+	/**
+	 * Make sure there's room for the given number of bytes.
+	 *
+	 * @throws IndexOutOfBoundsException if there isn't.
+	 */
+	public VecBufferWriter reserve(int bytes) {
+		if (ptr + bytes > end) {
+			throw new IndexOutOfBoundsException("Cannot write " + bytes + " bytes, " + remaining() + " remaining");
+		}
+		return this;
+	}
+
+	/**
+	 * @return The address the next put will write to.
+	 */
+	public long address() {
+		return ptr;
+	}
+
+	public long remaining() {
+		return end - ptr;
+	}
+
+	public VecBufferWriter skip(int bytes) {
+		ptr += bytes;
+		return this;
+	}
+
+	/**
+	 * View the next bytes as a ByteBuffer, for code that can't write through a pointer.
+	 * Use {@link #skip} afterwards to move past what was written.
+	 */
+	public ByteBuffer asByteBuffer(int bytes) {
+		reserve(bytes);
+		return MemoryUtil.memByteBuffer(ptr, bytes);
+	}
+
+	public VecBufferWriter put(byte b) {
+		MemoryUtil.memPutByte(ptr, b);
+		ptr += 1;
+		return this;
+	}
+
+	public VecBufferWriter putShort(short s) {
+		MemoryUtil.memPutShort(ptr, s);
+		ptr += 2;
+		return this;
+	}
+
+	public VecBufferWriter putInt(int i) {
+		MemoryUtil.memPutInt(ptr, i);
+		ptr += 4;
+		return this;
+	}
+
+	public VecBufferWriter putFloat(float f) {
+		MemoryUtil.memPutFloat(ptr, f);
+		ptr += 4;
+		return this;
+	}
+
+	public VecBufferWriter putFloatArray(float[] floats) {
+		for (float f : floats) {
+			MemoryUtil.memPutFloat(ptr, f);
+			ptr += 4;
+		}
+		return this;
+	}
+
+	public VecBufferWriter putVec4(float x, float y, float z, float w) {
+		MemoryUtil.memPutFloat(ptr, x);
+		MemoryUtil.memPutFloat(ptr + 4, y);
+		MemoryUtil.memPutFloat(ptr + 8, z);
+		MemoryUtil.memPutFloat(ptr + 12, w);
+		ptr += 16;
+		return this;
+	}
+
+	public VecBufferWriter putVec3(float x, float y, float z) {
+		MemoryUtil.memPutFloat(ptr, x);
+		MemoryUtil.memPutFloat(ptr + 4, y);
+		MemoryUtil.memPutFloat(ptr + 8, z);
+		ptr += 12;
+		return this;
+	}
+
+	public VecBufferWriter putVec2(float x, float y) {
+		MemoryUtil.memPutFloat(ptr, x);
+		MemoryUtil.memPutFloat(ptr + 4, y);
+		ptr += 8;
+		return this;
+	}
+
+	public VecBufferWriter putColor(int r, int g, int b, int a) {
+		return putColor((byte) r, (byte) g, (byte) b, (byte) a);
+	}
+
+	public VecBufferWriter putColor(byte r, byte g, byte b, byte a) {
+		MemoryUtil.memPutByte(ptr, r);
+		MemoryUtil.memPutByte(ptr + 1, g);
+		MemoryUtil.memPutByte(ptr + 2, b);
+		MemoryUtil.memPutByte(ptr + 3, a);
+		ptr += 4;
+		return this;
+	}
+
+	public VecBufferWriter putVec3(byte x, byte y, byte z) {
+		MemoryUtil.memPutByte(ptr, x);
+		MemoryUtil.memPutByte(ptr + 1, y);
+		MemoryUtil.memPutByte(ptr + 2, z);
+		ptr += 3;
+		return this;
+	}
+
+	public VecBufferWriter putVec2(byte x, byte y) {
+		MemoryUtil.memPutByte(ptr, x);
+		MemoryUtil.memPutByte(ptr + 1, y);
+		ptr += 2;
+		return this;
+	}
+}
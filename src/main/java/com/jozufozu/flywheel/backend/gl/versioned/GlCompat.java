@@ -11,8 +11,10 @@ import org.lwjgl.system.MemoryUtil;
 
 import com.jozufozu.flywheel.backend.gl.versioned.framebuffer.Blit;
 import com.jozufozu.flywheel.backend.gl.versioned.framebuffer.Framebuffer;
+import com.jozufozu.flywheel.backend.gl.versioned.instancing.DrawBaseVertex;
 import com.jozufozu.flywheel.backend.gl.versioned.instancing.DrawInstanced;
 import com.jozufozu.flywheel.backend.gl.versioned.instancing.InstancedArrays;
+import com.jozufozu.flywheel.backend.gl.versioned.instancing.MultiDrawIndirect;
 import com.jozufozu.flywheel.backend.gl.versioned.instancing.VertexArrayObject;
 
 /**
@@ -23,10 +25,14 @@ import com.jozufozu.flywheel.backend.gl.versioned.instancing.VertexArrayObject;
  */
 public class GlCompat {
 	public final MapBufferRange mapBufferRange;
+	public final BufferStorage bufferStorage;
+	public final InvalidateSubdata invalidateSubdata;
 
 	public final VertexArrayObject vao;
 	public final InstancedArrays instancedArrays;
 	public final DrawInstanced drawInstanced;
+	public final DrawBaseVertex drawBaseVertex;
+	public final MultiDrawIndirect multiDrawIndirect;
 	public final Blit blit;
 	public final Framebuffer fbo;
 
@@ -34,16 +40,28 @@ public class GlCompat {
 
 	public GlCompat(GLCapabilities caps) {
 		mapBufferRange = getLatest(MapBufferRange.class, caps);
+		bufferStorage = getLatest(BufferStorage.class, caps);
+		invalidateSubdata = getLatest(InvalidateSubdata.class, caps);
 
 		vao = getLatest(VertexArrayObject.class, caps);
 		instancedArrays = getLatest(InstancedArrays.class, caps);
 		drawInstanced = getLatest(DrawInstanced.class, caps);
+		drawBaseVertex = getLatest(DrawBaseVertex.class, caps);
+		multiDrawIndirect = getLatest(MultiDrawIndirect.class, caps);
 		blit = getLatest(Blit.class, caps);
 		fbo = getLatest(Framebuffer.class, caps);
 
 		pixelFormat = getLatest(RGPixelFormat.class, caps);
 	}
 
+	public boolean mapBufferRangeSupported() {
+		return mapBufferRange != MapBufferRange.UNSUPPORTED;
+	}
+
+	public boolean bufferStorageSupported() {
+		return bufferStorage != BufferStorage.UNSUPPORTED;
+	}
+
 	public boolean vertexArrayObjectsSupported() {
 		return vao != VertexArrayObject.UNSUPPORTED;
 	}
@@ -56,6 +74,14 @@ public class GlCompat {
 		return drawInstanced != DrawInstanced.UNSUPPORTED;
 	}
 
+	public boolean drawBaseVertexSupported() {
+		return drawBaseVertex != DrawBaseVertex.UNSUPPORTED;
+	}
+
+	public boolean multiDrawIndirectSupported() {
+		return multiDrawIndirect != MultiDrawIndirect.UNSUPPORTED;
+	}
+
 	public boolean fbosSupported() {
 		return fbo != Framebuffer.UNSUPPORTED;
 	}
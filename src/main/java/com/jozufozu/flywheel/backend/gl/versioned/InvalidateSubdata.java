@@ -0,0 +1,48 @@
+package com.jozufozu.flywheel.backend.gl.versioned;
+
+import org.lwjgl.opengl.ARBInvalidateSubdata;
+import org.lwjgl.opengl.GL43;
+import org.lwjgl.opengl.GLCapabilities;
+
+/**
+ * Tell the driver the contents of part of a buffer are no longer needed,
+ * instead of overwriting them with something else.
+ */
+public enum InvalidateSubdata implements GlVersioned {
+
+	GL43_INVALIDATE {
+		@Override
+		public boolean supported(GLCapabilities caps) {
+			return caps.OpenGL43;
+		}
+
+		@Override
+		public void invalidateBufferSubData(int buffer, long offset, long length) {
+			GL43.glInvalidateBufferSubData(buffer, offset, length);
+		}
+	},
+	ARB_INVALIDATE {
+		@Override
+		public boolean supported(GLCapabilities caps) {
+			return caps.GL_ARB_invalidate_subdata;
+		}
+
+		@Override
+		public void invalidateBufferSubData(int buffer, long offset, long length) {
+			ARBInvalidateSubdata.glInvalidateBufferSubData(buffer, offset, length);
+		}
+	},
+	UNSUPPORTED {
+		@Override
+		public boolean supported(GLCapabilities caps) {
+			return true;
+		}
+
+		@Override
+		public void invalidateBufferSubData(int buffer, long offset, long length) {
+			// only a hint, fine to skip
+		}
+	};
+
+	public abstract void invalidateBufferSubData(int buffer, long offset, long length);
+}
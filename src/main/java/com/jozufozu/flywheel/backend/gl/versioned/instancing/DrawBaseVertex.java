@@ -0,0 +1,62 @@
+package com.jozufozu.flywheel.backend.gl.versioned.instancing;
+
+import org.lwjgl.opengl.ARBDrawElementsBaseVertex;
+import org.lwjgl.opengl.GL32;
+import org.lwjgl.opengl.GLCapabilities;
+
+import com.jozufozu.flywheel.backend.gl.GlNumericType;
+import com.jozufozu.flywheel.backend.gl.GlPrimitive;
+import com.jozufozu.flywheel.backend.gl.versioned.GlVersioned;
+
+/**
+ * Indexed draws that add an offset to every index, so many models can live in one vertex buffer.
+ * Sharing a buffer also means moving models around inside it, so copying between buffers is required too.
+ */
+public enum DrawBaseVertex implements GlVersioned {
+	GL32_BASE_VERTEX {
+		@Override
+		public boolean supported(GLCapabilities caps) {
+			return caps.OpenGL32;
+		}
+
+		@Override
+		public void drawElementsBaseVertex(GlPrimitive mode, int elementCount, GlNumericType type, long indices, int baseVertex) {
+			GL32.glDrawElementsBaseVertex(mode.glEnum, elementCount, type.getGlEnum(), indices, baseVertex);
+		}
+
+		@Override
+		public void drawElementsInstancedBaseVertex(GlPrimitive mode, int elementCount, GlNumericType type, long indices, int primcount, int baseVertex) {
+			GL32.glDrawElementsInstancedBaseVertex(mode.glEnum, elementCount, type.getGlEnum(), indices, primcount, baseVertex);
+		}
+	},
+	ARB_BASE_VERTEX {
+		@Override
+		public boolean supported(GLCapabilities caps) {
+			return caps.OpenGL31 && caps.GL_ARB_draw_elements_base_vertex;
+		}
+
+		@Override
+		public void drawElementsBaseVertex(GlPrimitive mode, int elementCount, GlNumericType type, long indices, int baseVertex) {
+			ARBDrawElementsBaseVertex.glDrawElementsBaseVertex(mode.glEnum, elementCount, type.getGlEnum(), indices, baseVertex);
+		}
+
+		@Override
+		public void drawElementsInstancedBaseVertex(GlPrimitive mode, int elementCount, GlNumericType type, long indices, int primcount, int baseVertex) {
+			ARBDrawElementsBaseVertex.glDrawElementsInstancedBaseVertex(mode.glEnum, elementCount, type.getGlEnum(), indices, primcount, baseVertex);
+		}
+	},
+	UNSUPPORTED {
+		@Override
+		public boolean supported(GLCapabilities caps) {
+			return true;
+		}
+	};
+
+	public void drawElementsBaseVertex(GlPrimitive mode, int elementCount, GlNumericType type, long indices, int baseVertex) {
+		throw new UnsupportedOperationException();
+	}
+
+	public void drawElementsInstancedBaseVertex(GlPrimitive mode, int elementCount, GlNumericType type, long indices, int primcount, int baseVertex) {
+		throw new UnsupportedOperationException();
+	}
+}
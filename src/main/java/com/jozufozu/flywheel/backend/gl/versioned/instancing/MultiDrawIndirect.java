@@ -0,0 +1,53 @@
+package com.jozufozu.flywheel.backend.gl.versioned.instancing;
+
+import org.lwjgl.opengl.ARBMultiDrawIndirect;
+import org.lwjgl.opengl.GL43;
+import org.lwjgl.opengl.GLCapabilities;
+
+import com.jozufozu.flywheel.backend.gl.GlNumericType;
+import com.jozufozu.flywheel.backend.gl.GlPrimitive;
+import com.jozufozu.flywheel.backend.gl.versioned.GlVersioned;
+
+/**
+ * Many indexed draws from a buffer of commands in one call. The commands' baseInstance field is only honored with
+ * base instance support, so the ARB version requires that too.
+ */
+public enum MultiDrawIndirect implements GlVersioned {
+	GL43_MULTI_DRAW_INDIRECT {
+		@Override
+		public boolean supported(GLCapabilities caps) {
+			return caps.OpenGL43;
+		}
+
+		@Override
+		public void multiDrawElementsIndirect(GlPrimitive mode, GlNumericType type, long indirect, int drawCount, int stride) {
+			GL43.glMultiDrawElementsIndirect(mode.glEnum, type.getGlEnum(), indirect, drawCount, stride);
+		}
+	},
+	ARB_MULTI_DRAW_INDIRECT {
+		@Override
+		public boolean supported(GLCapabilities caps) {
+			return caps.OpenGL40 && caps.GL_ARB_multi_draw_indirect && caps.GL_ARB_base_instance;
+		}
+
+		@Override
+		public void multiDrawElementsIndirect(GlPrimitive mode, GlNumericType type, long indirect, int drawCount, int stride) {
+			ARBMultiDrawIndirect.glMultiDrawElementsIndirect(mode.glEnum, type.getGlEnum(), indirect, drawCount, stride);
+		}
+	},
+	UNSUPPORTED {
+		@Override
+		public boolean supported(GLCapabilities caps) {
+			return true;
+		}
+	};
+
+	/**
+	 * @param indirect  The offset of the first command in the bound draw indirect buffer.
+	 * @param drawCount The number of commands.
+	 * @param stride    The distance between commands in bytes, or 0 if they're tightly packed.
+	 */
+	public void multiDrawElementsIndirect(GlPrimitive mode, GlNumericType type, long indirect, int drawCount, int stride) {
+		throw new UnsupportedOperationException();
+	}
+}
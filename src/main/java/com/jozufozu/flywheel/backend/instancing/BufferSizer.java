@@ -0,0 +1,46 @@
+package com.jozufozu.flywheel.backend.instancing;
+
+/**
+ * Decides when an instance buffer should be reallocated, following an {@link UploadPolicy}.
+ *
+ * <p>
+ *     Buffers grow geometrically, so a steadily growing instancer reallocates a logarithmic number of times.
+ *     They shrink only after staying mostly empty for a number of frames in a row, so an instancer that bounces
+ *     around a size doesn't reallocate every time it crosses it.
+ * </p>
+ */
+public class BufferSizer {
+
+	private final UploadPolicy policy;
+	private int lowFrames;
+
+	public BufferSizer(UploadPolicy policy) {
+		this.policy = policy;
+	}
+
+	/**
+	 * Call once per frame.
+	 *
+	 * @param required How much space is needed right now.
+	 * @param current  How much space is allocated, 0 or less if nothing is.
+	 * @param min      The smallest allocation worth making.
+	 * @return The size to reallocate to, or -1 to keep the current allocation.
+	 */
+	public int resize(int required, int current, int min) {
+		if (required > current) {
+			lowFrames = 0;
+			return Math.max(min, Math.max(required, (int) (current * policy.getGrowthFactor())));
+		}
+
+		if (current > min && required < current * policy.getShrinkOccupancy()) {
+			if (++lowFrames >= policy.getShrinkDelay()) {
+				lowFrames = 0;
+				return Math.max(min, (int) (required * policy.getGrowthFactor()));
+			}
+		} else {
+			lowFrames = 0;
+		}
+
+		return -1;
+	}
+}
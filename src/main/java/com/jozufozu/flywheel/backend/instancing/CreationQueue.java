@@ -0,0 +1,198 @@
+package com.jozufozu.flywheel.backend.instancing;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import net.minecraft.util.math.BlockPos;
+
+/**
+ * Objects waiting for an instance to be created for them.
+ *
+ * <p>
+ *     Creating an instance builds models and queries light, so creating everything queued at once can stall a frame
+ *     for a long time. Instead, each frame creates instances nearest to the camera first until its time budget runs
+ *     out, and leaves the rest for the following frames.
+ * </p>
+ */
+public class CreationQueue<T> {
+
+	/**
+	 * How far the camera has to move before the queue is sorted again.
+	 */
+	private static final int RESORT_DISTANCE = 16;
+
+	private final Function<T, BlockPos> position;
+
+	private final Set<T> incoming = new HashSet<>(64);
+	private final Set<T> pending = new HashSet<>(64);
+	/**
+	 * Farthest first, so the nearest object can be popped off the end.
+	 * May contain objects that were removed from {@link #pending} since it was sorted.
+	 */
+	private final ArrayList<T> order = new ArrayList<>();
+
+	private boolean unsorted;
+	private int sortX;
+	private int sortY;
+	private int sortZ;
+
+	private int createdLastFrame;
+	private long nanosLastFrame;
+
+	public CreationQueue(Function<T, BlockPos> position) {
+		this.position = position;
+	}
+
+	/**
+	 * Queue an object. Safe to call from any thread.
+	 */
+	public void add(T obj) {
+		synchronized (incoming) {
+			incoming.add(obj);
+		}
+	}
+
+	/**
+	 * Forget about an object that no longer needs an instance. Safe to call from any thread.
+	 */
+	public void remove(T obj) {
+		synchronized (incoming) {
+			incoming.remove(obj);
+			pending.remove(obj);
+		}
+	}
+
+	/**
+	 * Forget about every queued object that matches the filter. Safe to call from any thread.
+	 */
+	public void removeIf(Predicate<T> filter) {
+		synchronized (incoming) {
+			incoming.removeIf(filter);
+			pending.removeIf(filter);
+		}
+	}
+
+	/**
+	 * Create instances for queued objects, nearest to the camera first, until the budget is used up.
+	 * At least one object is created each call, so the queue always makes progress.
+	 *
+	 * @param create       Creates the instance for an object.
+	 * @param budgetMicros How long to spend creating instances.
+	 */
+	public void process(Consumer<T> create, long budgetMicros, int cX, int cY, int cZ) {
+		long start = System.nanoTime();
+		int created = 0;
+
+		synchronized (incoming) {
+			if (!incoming.isEmpty()) {
+				for (T obj : incoming) {
+					if (pending.add(obj)) order.add(obj);
+				}
+				incoming.clear();
+				unsorted = true;
+			}
+		}
+
+		if (!pending.isEmpty()) {
+			sortIfNeeded(cX, cY, cZ);
+
+			long deadline = start + budgetMicros * 1000;
+
+			while (!order.isEmpty()) {
+				T obj = order.remove(order.size() - 1);
+
+				synchronized (incoming) {
+					if (!pending.remove(obj)) continue;
+				}
+
+				create.accept(obj);
+				created++;
+
+				if (System.nanoTime() >= deadline) break;
+			}
+		} else {
+			order.clear();
+		}
+
+		createdLastFrame = created;
+		nanosLastFrame = System.nanoTime() - start;
+	}
+
+	private void sortIfNeeded(int cX, int cY, int cZ) {
+		boolean moved = Math.abs(cX - sortX) > RESORT_DISTANCE || Math.abs(cY - sortY) > RESORT_DISTANCE || Math.abs(cZ - sortZ) > RESORT_DISTANCE;
+
+		if (!unsorted && !moved) return;
+
+		if (order.size() > pending.size() * 2) {
+			// mostly removed objects, drop them while we're at it
+			order.retainAll(pending);
+		}
+
+		order.sort(Comparator.comparingLong((T obj) -> distanceSq(position.apply(obj), cX, cY, cZ)).reversed());
+
+		unsorted = false;
+		sortX = cX;
+		sortY = cY;
+		sortZ = cZ;
+	}
+
+	private static long distanceSq(BlockPos pos, int cX, int cY, int cZ) {
+		long dX = pos.getX() - cX;
+		long dY = pos.getY() - cY;
+		long dZ = pos.getZ() - cZ;
+		return dX * dX + dY * dY + dZ * dZ;
+	}
+
+	/**
+	 * Move everything that's queued into the given collection, leaving the queue empty.
+	 */
+	public void drainTo(Collection<T> out) {
+		synchronized (incoming) {
+			out.addAll(incoming);
+			out.addAll(pending);
+			incoming.clear();
+			pending.clear();
+		}
+		order.clear();
+	}
+
+	/**
+	 * Drop everything that's queued.
+	 */
+	public void clear() {
+		synchronized (incoming) {
+			incoming.clear();
+			pending.clear();
+		}
+		order.clear();
+	}
+
+	/**
+	 * @return How many objects are still waiting for an instance.
+	 */
+	public int getQueueDepth() {
+		synchronized (incoming) {
+			return incoming.size() + pending.size();
+		}
+	}
+
+	/**
+	 * @return How many instances were created during the last call to {@link #process}.
+	 */
+	public int getCreatedLastFrame() {
+		return createdLastFrame;
+	}
+
+	/**
+	 * @return How long the last call to {@link #process} took, in microseconds.
+	 */
+	public long getMicrosLastFrame() {
+		return nanosLastFrame / 1000;
+	}
+}
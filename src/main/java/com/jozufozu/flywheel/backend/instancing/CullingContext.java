@@ -0,0 +1,96 @@
+package com.jozufozu.flywheel.backend.instancing;
+
+import net.minecraft.client.renderer.culling.ClippingHelper;
+import net.minecraft.util.math.AxisAlignedBB;
+import net.minecraft.util.math.vector.Matrix4f;
+import net.minecraft.util.math.vector.Vector3i;
+
+/**
+ * Everything an {@link Instancer} needs to skip drawing instances the camera can't see.
+ *
+ * <p>
+ *     Whole instancers are tested against vanilla's {@link ClippingHelper}. Individual instances are tested against
+ *     frustum planes pulled out of the view projection matrix flywheel renders with, which is relative to the
+ *     origin coordinate like instance positions are. Anything further away than the end of linear fog is
+ *     culled too.
+ * </p>
+ */
+public class CullingContext {
+
+	private final float[] planes = new float[24];
+
+	private ClippingHelper clippingHelper;
+	private Vector3i origin = Vector3i.ZERO;
+	private float camX;
+	private float camY;
+	private float camZ;
+	private float maxDistance = Float.POSITIVE_INFINITY;
+
+	/**
+	 * Get ready to cull a frame.
+	 *
+	 * @param clippingHelper The vanilla frustum for this frame.
+	 * @param origin         The origin coordinate everything is rendered relative to.
+	 * @param viewProjection The view projection matrix, already relative to the origin coordinate.
+	 * @param camX           The camera position, relative to the origin coordinate.
+	 * @param maxDistance    How far away things can be seen, usually the end of the fog.
+	 */
+	public void prepare(ClippingHelper clippingHelper, Vector3i origin, Matrix4f viewProjection, double camX, double camY, double camZ, float maxDistance) {
+		this.clippingHelper = clippingHelper;
+		this.origin = origin;
+		this.camX = (float) camX;
+		this.camY = (float) camY;
+		this.camZ = (float) camZ;
+		this.maxDistance = maxDistance;
+
+		Matrix4f m = viewProjection;
+		// left, right, bottom, top, near, far
+		setPlane(0, m.m30 + m.m00, m.m31 + m.m01, m.m32 + m.m02, m.m33 + m.m03);
+		setPlane(1, m.m30 - m.m00, m.m31 - m.m01, m.m32 - m.m02, m.m33 - m.m03);
+		setPlane(2, m.m30 + m.m10, m.m31 + m.m11, m.m32 + m.m12, m.m33 + m.m13);
+		setPlane(3, m.m30 - m.m10, m.m31 - m.m11, m.m32 - m.m12, m.m33 - m.m13);
+		setPlane(4, m.m30 + m.m20, m.m31 + m.m21, m.m32 + m.m22, m.m33 + m.m23);
+		setPlane(5, m.m30 - m.m20, m.m31 - m.m21, m.m32 - m.m22, m.m33 - m.m23);
+	}
+
+	private void setPlane(int i, float x, float y, float z, float w) {
+		float invLength = (float) (1 / Math.sqrt(x * x + y * y + z * z));
+		planes[i * 4] = x * invLength;
+		planes[i * 4 + 1] = y * invLength;
+		planes[i * 4 + 2] = z * invLength;
+		planes[i * 4 + 3] = w * invLength;
+	}
+
+	/**
+	 * @param sphere {@code {x, y, z, radius}}, relative to the origin coordinate.
+	 * @return True if any part of the sphere might be visible.
+	 */
+	public boolean isVisible(float[] sphere) {
+		float x = sphere[0];
+		float y = sphere[1];
+		float z = sphere[2];
+		float r = sphere[3];
+
+		float dx = x - camX;
+		float dy = y - camY;
+		float dz = z - camZ;
+		float reach = maxDistance + r;
+		if (dx * dx + dy * dy + dz * dz > reach * reach) return false;
+
+		for (int i = 0; i < 24; i += 4) {
+			if (planes[i] * x + planes[i + 1] * y + planes[i + 2] * z + planes[i + 3] < -r) return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Check a box relative to the origin coordinate against vanilla's frustum.
+	 */
+	public boolean isVisible(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+		int oX = origin.getX();
+		int oY = origin.getY();
+		int oZ = origin.getZ();
+		return clippingHelper.isVisible(new AxisAlignedBB(minX + oX, minY + oY, minZ + oZ, maxX + oX, maxY + oY, maxZ + oZ));
+	}
+}
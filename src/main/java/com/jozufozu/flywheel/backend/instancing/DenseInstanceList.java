@@ -0,0 +1,69 @@
+package com.jozufozu.flywheel.backend.instancing;
+
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+
+/**
+ * Instances packed into an array, so the {@link JobSystem} can split them into contiguous chunks.
+ * Removing an instance moves the last one into its place, so the order isn't stable.
+ *
+ * @param <T> The type of object the instances are for.
+ * @param <I> The type of instance.
+ */
+public class DenseInstanceList<T, I> {
+
+	private final ObjectArrayList<T> owners = new ObjectArrayList<>();
+	private final ObjectArrayList<I> instances = new ObjectArrayList<>();
+	private final Object2IntOpenHashMap<T> indices = new Object2IntOpenHashMap<>();
+
+	public DenseInstanceList() {
+		indices.defaultReturnValue(-1);
+	}
+
+	public void add(T obj, I instance) {
+		int i = indices.getInt(obj);
+
+		if (i >= 0) {
+			instances.set(i, instance);
+			return;
+		}
+
+		indices.put(obj, instances.size());
+		owners.add(obj);
+		instances.add(instance);
+	}
+
+	public void remove(T obj) {
+		int i = indices.removeInt(obj);
+
+		if (i < 0) return;
+
+		int last = instances.size() - 1;
+		if (i != last) {
+			T moved = owners.get(last);
+			owners.set(i, moved);
+			instances.set(i, instances.get(last));
+			indices.put(moved, i);
+		}
+
+		owners.remove(last);
+		instances.remove(last);
+	}
+
+	public int size() {
+		return instances.size();
+	}
+
+	/**
+	 * @return The backing array. Only the first {@link #size()} elements are instances.
+	 */
+	public Object[] elements() {
+		return instances.elements();
+	}
+
+	public void clear() {
+		owners.clear();
+		instances.clear();
+		indices.clear();
+	}
+}
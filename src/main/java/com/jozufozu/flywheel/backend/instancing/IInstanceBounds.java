@@ -0,0 +1,16 @@
+package com.jozufozu.flywheel.backend.instancing;
+
+/**
+ * Places an instance's bounding sphere in the world, so instances that can't be seen don't have to be drawn.
+ */
+@FunctionalInterface
+public interface IInstanceBounds<D extends InstanceData> {
+	/**
+	 * Transform a bounding sphere from model space into the space the instance is rendered in.
+	 *
+	 * @param instance The instance.
+	 * @param sphere   On input, the model's bounding sphere as {@code {x, y, z, radius}}.
+	 *                 On output, the instance's bounding sphere in the same layout.
+	 */
+	void transformSphere(D instance, float[] sphere);
+}
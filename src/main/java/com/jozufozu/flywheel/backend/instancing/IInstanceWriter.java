@@ -0,0 +1,13 @@
+package com.jozufozu.flywheel.backend.instancing;
+
+/**
+ * Writes an instance straight to memory, skipping {@link InstanceData#write(com.jozufozu.flywheel.backend.gl.buffer.MappedBuffer)}.
+ * <p>
+ *     Implementations must write exactly one instance in the material's instance format, {@code stride} bytes
+ *     starting at the given address, without allocating.
+ * </p>
+ */
+@FunctionalInterface
+public interface IInstanceWriter<D extends InstanceData> {
+	void write(D instance, long ptr);
+}
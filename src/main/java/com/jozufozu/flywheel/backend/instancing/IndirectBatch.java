@@ -0,0 +1,328 @@
+package com.jozufozu.flywheel.backend.instancing;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+import org.lwjgl.system.MemoryUtil;
+
+import com.jozufozu.flywheel.backend.Backend;
+import com.jozufozu.flywheel.backend.gl.GlPrimitive;
+import com.jozufozu.flywheel.backend.gl.GlVertexArray;
+import com.jozufozu.flywheel.backend.gl.attrib.VertexFormat;
+import com.jozufozu.flywheel.backend.gl.buffer.GlBuffer;
+import com.jozufozu.flywheel.backend.gl.buffer.GlBufferType;
+import com.jozufozu.flywheel.backend.gl.buffer.GlBufferUsage;
+import com.jozufozu.flywheel.backend.model.ArenaModel;
+import com.jozufozu.flywheel.backend.model.ElementBuffer;
+import com.jozufozu.flywheel.backend.model.ModelArena;
+import com.jozufozu.flywheel.core.QuadConverter;
+import com.jozufozu.flywheel.util.AttribUtil;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+/**
+ * Draws all the instancers of a material with one {@code glMultiDrawElementsIndirect}.
+ *
+ * <p>
+ *     Every model of the material's format already lives in one {@link ModelArena}, and indexes the shared quad
+ *     buffer. If the material has a {@link SharedInstanceBuffer}, every instance does too. Otherwise the instances
+ *     of every instancer are copied back to back into one instance buffer on the GPU, whenever they change or move.
+ *     Either way a single VAO can draw everything. Each instancer, or each visible run of one when culling, becomes
+ *     a command that finds its model with {@code baseVertex} and its instances with {@code baseInstance}.
+ * </p>
+ * <p>
+ *     Instancers whose models can't share the quad index buffer are drawn on their own, as before.
+ * </p>
+ */
+public class IndirectBatch<D extends InstanceData> {
+
+	/**
+	 * {@code count, instanceCount, firstIndex, baseVertex, baseInstance}
+	 */
+	private static final int COMMAND_SIZE = 20;
+	private static final int MIN_INSTANCE_CAPACITY = 64;
+
+	private final VertexFormat modelFormat;
+	private final VertexFormat instanceFormat;
+	@Nullable
+	private final SharedInstanceBuffer shared;
+
+	private final List<Instancer<D>> batched = new ArrayList<>();
+	private final Map<Instancer<D>, Slot> slots = new IdentityHashMap<>();
+	private int frame;
+
+	private GlVertexArray vao;
+	private GlBuffer instances;
+	private GlBuffer commands;
+	private ModelArena arena;
+	private ElementBuffer ebo;
+	private int instanceCapacity;
+
+	private ByteBuffer commandData;
+	private int commandCount;
+
+	private boolean deleted;
+
+	/**
+	 * @param shared The buffer the material's instancers keep their instances in, or null if they each have their own.
+	 */
+	public IndirectBatch(VertexFormat modelFormat, VertexFormat instanceFormat, @Nullable SharedInstanceBuffer shared) {
+		this.modelFormat = modelFormat;
+		this.instanceFormat = instanceFormat;
+		this.shared = shared;
+	}
+
+	/**
+	 * Draw the given instancers. The program should already be bound.
+	 *
+	 * @param culling Used to skip instances that can't be seen, or null to draw everything.
+	 */
+	public void render(Iterable<Instancer<D>> instancers, @Nullable CullingContext culling) {
+		if (deleted) return;
+
+		ModelArena arena = ModelArena.get(modelFormat);
+
+		batched.clear();
+		for (Instancer<D> instancer : instancers) {
+			if (instancer.canDrawIndirect() && instancer.getArenaModel().getArena() == arena) {
+				instancer.update();
+				batched.add(instancer);
+			} else {
+				instancer.render(culling);
+			}
+		}
+
+		if (batched.isEmpty()) return;
+
+		if (vao == null) init();
+
+		boolean setup = updateIndices(arena);
+
+		if (shared != null) {
+			if (setup || instances == null) {
+				instances = shared.getBuffer();
+				setupVertexArray();
+			}
+		} else {
+			updateInstances(setup);
+		}
+
+		writeCommands(culling);
+
+		if (commandCount > 0) {
+			vao.bind();
+			commands.bind();
+			Backend.getInstance().compat.multiDrawIndirect.multiDrawElementsIndirect(GlPrimitive.TRIANGLES, ebo.eboIndexType, 0, commandCount, 0);
+			commands.unbind();
+			vao.unbind();
+		}
+
+		for (Instancer<D> instancer : batched) {
+			instancer.fence();
+		}
+	}
+
+	public void delete() {
+		if (deleted) return;
+
+		deleted = true;
+
+		if (vao != null) {
+			vao.delete();
+			commands.delete();
+		}
+		if (instances != null && shared == null) instances.delete();
+		if (commandData != null) MemoryUtil.memFree(commandData);
+		slots.clear();
+		batched.clear();
+	}
+
+	private void init() {
+		vao = new GlVertexArray();
+		commands = new GlBuffer(GlBufferType.DRAW_INDIRECT_BUFFER, GlBufferUsage.STREAM_DRAW);
+		commandData = MemoryUtil.memAlloc(COMMAND_SIZE * 16);
+	}
+
+	/**
+	 * Make sure the shared quad index buffer is big enough for the largest model.
+	 *
+	 * @return True if the vao needs to be pointed at new buffers.
+	 */
+	private boolean updateIndices(ModelArena arena) {
+		int maxElements = 0;
+		for (Instancer<D> instancer : batched) {
+			maxElements = Math.max(maxElements, instancer.getArenaModel()
+					.getElementBuffer().elementCount);
+		}
+
+		boolean setup = false;
+		if (this.arena != arena) {
+			this.arena = arena;
+			setup = true;
+		}
+
+		// every model indexes consecutive quads, so one index buffer big enough for the largest works for all of them
+		if (ebo == null || maxElements > ebo.elementCount) {
+			ElementBuffer newEbo = QuadConverter.getInstance()
+					.quads2Tris(maxElements / 6);
+
+			setup |= ebo == null || newEbo.eboIndexType != ebo.eboIndexType;
+			ebo = newEbo;
+		}
+
+		return setup;
+	}
+
+	/**
+	 * Lay out every instancer's instances back to back, and copy the ones that moved or changed.
+	 *
+	 * @param setup Whether the vao has to be pointed at new buffers anyway.
+	 */
+	private void updateInstances(boolean setup) {
+		final int stride = instanceFormat.getStride();
+
+		int total = 0;
+		for (Instancer<D> instancer : batched) {
+			total += instancer.getInstanceCount();
+		}
+
+		boolean reallocated = false;
+		if (total > instanceCapacity || instances == null) {
+			instanceCapacity = Math.max(MIN_INSTANCE_CAPACITY, total + (total >> 1));
+
+			if (instances != null) instances.delete();
+			instances = new GlBuffer(GlBufferType.ARRAY_BUFFER, GlBufferUsage.DYNAMIC_DRAW);
+			instances.bind();
+			instances.alloc(instanceCapacity * stride);
+			instances.unbind();
+
+			reallocated = setup = true;
+		}
+
+		if (setup) setupVertexArray();
+
+		frame++;
+		int baseInstance = 0;
+		for (Instancer<D> instancer : batched) {
+			Slot slot = slots.computeIfAbsent(instancer, $ -> new Slot());
+			slot.frame = frame;
+
+			int count = instancer.getInstanceCount();
+			int version = instancer.getContentVersion();
+
+			if (reallocated || slot.baseInstance != baseInstance || slot.instanceCount != count || slot.version != version) {
+				if (count > 0) {
+					instancer.getInstanceBuffer()
+							.copyTo(instances, instancer.getInstanceBufferOffset(), (long) baseInstance * stride, (long) count * stride);
+				}
+
+				slot.baseInstance = baseInstance;
+				slot.instanceCount = count;
+				slot.version = version;
+			}
+
+			baseInstance += count;
+		}
+
+		if (slots.size() > batched.size()) {
+			slots.values()
+					.removeIf(slot -> slot.frame != frame);
+		}
+	}
+
+	private void setupVertexArray() {
+		final int staticAttributes = modelFormat.getAttributeCount();
+
+		vao.bind();
+
+		arena.getBuffer()
+				.bind();
+		AttribUtil.enableArrays(staticAttributes + instanceFormat.getAttributeCount());
+		modelFormat.vertexAttribPointers(0);
+
+		instances.bind();
+		instanceFormat.vertexAttribPointers(staticAttributes);
+		for (int i = 0; i < instanceFormat.getAttributeCount(); i++) {
+			Backend.getInstance().compat.instancedArrays.vertexAttribDivisor(i + staticAttributes, 1);
+		}
+
+		ebo.bind();
+
+		vao.unbind();
+
+		instances.unbind();
+		ebo.unbind();
+	}
+
+	private void writeCommands(@Nullable CullingContext culling) {
+		commandCount = 0;
+
+		for (Instancer<D> instancer : batched) {
+			int instanceCount;
+			int baseInstance;
+			if (shared != null) {
+				instanceCount = instancer.getInstanceCount();
+				baseInstance = instancer.getBaseInstance();
+			} else {
+				Slot slot = slots.get(instancer);
+				instanceCount = slot.instanceCount;
+				baseInstance = slot.baseInstance;
+			}
+
+			if (instanceCount == 0) continue;
+
+			ArenaModel model = instancer.getArenaModel();
+			int elementCount = model.getElementBuffer().elementCount;
+			int baseVertex = model.getBaseVertex();
+
+			IntArrayList runs = culling != null ? instancer.collectVisibleRuns(culling) : null;
+
+			if (runs == null) {
+				addCommand(elementCount, baseVertex, baseInstance, instanceCount);
+			} else {
+				for (int r = 0; r < runs.size(); r += 2) {
+					int start = runs.getInt(r);
+					addCommand(elementCount, baseVertex, baseInstance + start, runs.getInt(r + 1) - start);
+				}
+			}
+		}
+
+		if (commandCount == 0) return;
+
+		commandData.position(0);
+		commandData.limit(commandCount * COMMAND_SIZE);
+
+		commands.bind();
+		commands.upload(commandData);
+		commands.unbind();
+	}
+
+	private void addCommand(int elementCount, int baseVertex, int baseInstance, int instanceCount) {
+		int offset = commandCount * COMMAND_SIZE;
+
+		if (offset + COMMAND_SIZE > commandData.capacity()) {
+			commandData = MemoryUtil.memRealloc(commandData, commandData.capacity() * 2);
+		}
+
+		long ptr = MemoryUtil.memAddress0(commandData) + offset;
+		MemoryUtil.memPutInt(ptr, elementCount);
+		MemoryUtil.memPutInt(ptr + 4, instanceCount);
+		MemoryUtil.memPutInt(ptr + 8, 0);
+		MemoryUtil.memPutInt(ptr + 12, baseVertex);
+		MemoryUtil.memPutInt(ptr + 16, baseInstance);
+
+		commandCount++;
+	}
+
+	private static class Slot {
+		int baseInstance = -1;
+		int instanceCount;
+		int version;
+		int frame;
+	}
+}
@@ -0,0 +1,103 @@
+package com.jozufozu.flywheel.backend.instancing;
+
+import static org.lwjgl.system.MemoryUtil.NULL;
+
+import org.lwjgl.system.MemoryUtil;
+
+import com.jozufozu.flywheel.backend.gl.buffer.MappedClientBuffer;
+
+/**
+ * Off-heap, stride packed storage for the instances of an {@link Instancer}.
+ *
+ * <p>
+ *     The arena mirrors the instance VBO byte for byte: slot {@code i} lives at {@code i * stride}.
+ *     InstanceData objects are serialized into their slot when they change, and from there the arena is copied
+ *     to the GPU in contiguous ranges. Growing or compacting the instance buffer only has to move bytes around,
+ *     it never has to walk (and re-serialize) every InstanceData object.
+ * </p>
+ */
+public class InstanceArena {
+
+	private static final int MIN_CAPACITY = 16;
+
+	private final int stride;
+	private final MappedClientBuffer view = new MappedClientBuffer();
+
+	private long ptr = NULL;
+	private int capacity;
+
+	public InstanceArena(int stride) {
+		this.stride = stride;
+	}
+
+	public int getStride() {
+		return stride;
+	}
+
+	/**
+	 * @return How many instances fit in the arena without growing it.
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Make sure the arena can hold at least the given number of instances, preserving existing contents.
+	 */
+	public void ensureCapacity(int instances) {
+		if (instances <= capacity) return;
+
+		int newCapacity = Math.max(MIN_CAPACITY, Math.max(instances, capacity + (capacity >> 1)));
+		long bytes = (long) newCapacity * stride;
+
+		long newPtr = MemoryUtil.nmemRealloc(ptr, bytes);
+
+		if (newPtr == NULL) {
+			throw new OutOfMemoryError("Could not allocate " + bytes + " bytes for instance arena");
+		}
+
+		ptr = newPtr;
+		capacity = newCapacity;
+		view.wrap(ptr, (int) bytes);
+	}
+
+	/**
+	 * @return The address of the first byte of the given slot.
+	 */
+	public long address(int slot) {
+		return ptr + (long) slot * stride;
+	}
+
+	/**
+	 * Serialize an instance into the given slot.
+	 */
+	public void write(int slot, InstanceData instance) {
+		view.position(slot * stride);
+		instance.write(view);
+	}
+
+	/**
+	 * Copy the contents of one slot to another.
+	 */
+	public void move(int from, int to) {
+		MemoryUtil.memCopy(address(from), address(to), stride);
+	}
+
+	/**
+	 * Copy a run of slots to the given address, usually a mapped GL buffer.
+	 */
+	public void copyTo(long dst, int firstSlot, int count) {
+		MemoryUtil.memCopy(address(firstSlot), dst, (long) count * stride);
+	}
+
+	/**
+	 * Free the backing memory. The arena may be reused afterwards, it will simply start out empty.
+	 */
+	public void delete() {
+		if (ptr != NULL) {
+			MemoryUtil.nmemFree(ptr);
+			ptr = NULL;
+		}
+		capacity = 0;
+	}
+}
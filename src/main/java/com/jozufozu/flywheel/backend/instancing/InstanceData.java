@@ -6,6 +6,11 @@ public abstract class InstanceData {
 
 	Instancer<?> owner;
 
+	/**
+	 * Where this instance lives in its owner, kept up to date by the owner.
+	 */
+	int index = -1;
+
 	boolean dirty;
 	boolean removed;
 
@@ -16,13 +21,17 @@ public abstract class InstanceData {
 	public abstract void write(MappedBuffer buf);
 
 	public void markDirty() {
-		owner.anyToUpdate = true;
+		if (dirty) return;
+
 		dirty = true;
+		owner.markDirty(this);
 	}
 
 	public void delete() {
-		owner.anyToRemove = true;
+		if (removed) return;
+
 		removed = true;
+		owner.markRemoved(this);
 	}
 
 }
@@ -29,24 +29,36 @@ public abstract class InstanceManager<T> implements MaterialManager.OriginShiftL
 
 	public final MaterialManager<?> materialManager;
 
-	private final Set<T> queuedAdditions;
+	private final CreationQueue<T> queuedAdditions;
 	private final Set<T> queuedUpdates;
 
 	protected final Map<T, IInstance> instances;
 	protected final Object2ObjectOpenHashMap<T, ITickableInstance> tickableInstances;
 	protected final Object2ObjectOpenHashMap<T, IDynamicInstance> dynamicInstances;
+	protected final SectionIndex<T> sections;
+
+	private final DenseInstanceList<T, ITickableInstance> ticking;
+	private final DenseInstanceList<T, IDynamicInstance> dynamic;
 
 	protected int frame;
 	protected int tick;
 
+	protected long creationBudget = 2000;
+
+	private long tickNanos;
+	private long frameNanos;
+
 	public InstanceManager(MaterialManager<?> materialManager) {
 		this.materialManager = materialManager;
 		this.queuedUpdates = new HashSet<>(64);
-		this.queuedAdditions = new HashSet<>(64);
+		this.queuedAdditions = new CreationQueue<>(this::getWorldPosition);
 		this.instances = new HashMap<>();
 
 		this.dynamicInstances = new Object2ObjectOpenHashMap<>();
 		this.tickableInstances = new Object2ObjectOpenHashMap<>();
+		this.sections = new SectionIndex<>();
+		this.ticking = new DenseInstanceList<>();
+		this.dynamic = new DenseInstanceList<>();
 
 		materialManager.addListener(this);
 	}
@@ -72,6 +84,59 @@ public abstract class InstanceManager<T> implements MaterialManager.OriginShiftL
 	@Nullable
 	protected abstract IInstance createRaw(T obj);
 
+	/**
+	 * @return Where the given object is, used to create instances nearest to the camera first.
+	 */
+	protected abstract BlockPos getWorldPosition(T obj);
+
+	/**
+	 * Can objects managed here move around after their instance is created?
+	 * If so, the {@link #getSections() section index} is updated for them every tick.
+	 */
+	protected boolean canMove() {
+		return false;
+	}
+
+	/**
+	 * @return How long each frame may spend creating queued instances, in microseconds.
+	 */
+	public long getCreationBudget() {
+		return creationBudget;
+	}
+
+	public InstanceManager<T> setCreationBudget(long creationBudget) {
+		this.creationBudget = creationBudget;
+		return this;
+	}
+
+	/**
+	 * @return The queue of objects waiting for an instance, for metrics.
+	 */
+	public CreationQueue<T> getCreationQueue() {
+		return queuedAdditions;
+	}
+
+	/**
+	 * @return The instanced objects, grouped by the chunk section they're in.
+	 */
+	public SectionIndex<T> getSections() {
+		return sections;
+	}
+
+	/**
+	 * @return How long the last {@link #tick} took, in microseconds.
+	 */
+	public long getTickMicros() {
+		return tickNanos / 1000;
+	}
+
+	/**
+	 * @return How long the last {@link #beginFrame} took, in microseconds.
+	 */
+	public long getFrameMicros() {
+		return frameNanos / 1000;
+	}
+
 	/**
 	 * Ticks the InstanceManager.
 	 *
@@ -82,36 +147,50 @@ public abstract class InstanceManager<T> implements MaterialManager.OriginShiftL
 	 * </p>
 	 */
 	public void tick(double cameraX, double cameraY, double cameraZ) {
+		long start = System.nanoTime();
+
 		tick++;
 		processQueuedUpdates();
 
+		if (canMove()) {
+			for (T obj : instances.keySet()) {
+				sections.move(obj, getWorldPosition(obj));
+			}
+		}
+
 		// integer camera pos as a micro-optimization
 		int cX = (int) cameraX;
 		int cY = (int) cameraY;
 		int cZ = (int) cameraZ;
 
-		if (tickableInstances.size() > 0) {
-			tickableInstances.object2ObjectEntrySet().parallelStream().forEach(e -> {
-				ITickableInstance instance = e.getValue();
-				if (!instance.decreaseTickRateWithDistance()) {
-					instance.tick();
-					return;
-				}
+		Object[] tickables = ticking.elements();
+		JobSystem.get()
+				.forEachChunk(ticking.size(), JobSystem.DEFAULT_CHUNK_SIZE, (from, to) -> {
+					for (int i = from; i < to; i++) {
+						ITickableInstance instance = (ITickableInstance) tickables[i];
 
-				BlockPos pos = instance.getWorldPosition();
+						if (!instance.decreaseTickRateWithDistance()) {
+							instance.tick();
+							continue;
+						}
 
-				int dX = pos.getX() - cX;
-				int dY = pos.getY() - cY;
-				int dZ = pos.getZ() - cZ;
+						BlockPos pos = instance.getWorldPosition();
 
-				if ((tick % getUpdateDivisor(dX, dY, dZ)) == 0) instance.tick();
-			});
-		}
+						int dX = pos.getX() - cX;
+						int dY = pos.getY() - cY;
+						int dZ = pos.getZ() - cZ;
+
+						if ((tick % getUpdateDivisor(dX, dY, dZ)) == 0) instance.tick();
+					}
+				});
+
+		tickNanos = System.nanoTime() - start;
 	}
 
 	public void beginFrame(ActiveRenderInfo info) {
+		long start = System.nanoTime();
+
 		frame++;
-		processQueuedAdditions();
 
 		Vector3f look = info.getLookVector();
 		float lookX = look.x();
@@ -123,15 +202,20 @@ public abstract class InstanceManager<T> implements MaterialManager.OriginShiftL
 		int cY = (int) info.getPosition().y;
 		int cZ = (int) info.getPosition().z;
 
-		if (dynamicInstances.size() > 0) {
-			dynamicInstances.object2ObjectEntrySet()
-					.parallelStream()
-					.forEach(e -> {
-						IDynamicInstance dyn = e.getValue();
+		processQueuedAdditions(cX, cY, cZ);
+
+		Object[] dynamics = dynamic.elements();
+		JobSystem.get()
+				.forEachChunk(dynamic.size(), JobSystem.DEFAULT_CHUNK_SIZE, (from, to) -> {
+					for (int i = from; i < to; i++) {
+						IDynamicInstance dyn = (IDynamicInstance) dynamics[i];
+
 						if (!dyn.decreaseFramerateWithDistance() || shouldFrameUpdate(dyn.getWorldPosition(), lookX, lookY, lookZ, cX, cY, cZ))
 							dyn.beginFrame();
-					});
-		}
+					}
+				});
+
+		frameNanos = System.nanoTime() - start;
 	}
 
 	public void add(T obj) {
@@ -143,13 +227,15 @@ public abstract class InstanceManager<T> implements MaterialManager.OriginShiftL
 		}
 	}
 
+	/**
+	 * Create an instance for the given object some time soon. Instances are created nearest to the camera first,
+	 * spread over as many frames as needed to stay within the {@link #getCreationBudget() creation budget}.
+	 */
 	public void queueAdd(T obj) {
 		if (!Backend.getInstance()
 				.canUseInstancing()) return;
 
-		synchronized (queuedAdditions) {
-			queuedAdditions.add(obj);
-		}
+		queuedAdditions.add(obj);
 	}
 
 	/**
@@ -204,10 +290,55 @@ public abstract class InstanceManager<T> implements MaterialManager.OriginShiftL
 		}
 	}
 
+	/**
+	 * Update the light of every instance in the given section.
+	 *
+	 * @param section A section position, as given by {@link net.minecraft.util.math.SectionPos#asLong()}.
+	 */
+	public void onSectionLightUpdate(long section) {
+		if (!Backend.getInstance()
+				.canUseInstancing()) return;
+
+		sections.forEachInSection(section, obj -> instances.get(obj)
+				.updateLight());
+	}
+
+	/**
+	 * Update the light of every instance in the given chunk.
+	 */
+	public void onChunkLightUpdate(int chunkX, int chunkZ) {
+		if (!Backend.getInstance()
+				.canUseInstancing()) return;
+
+		for (T obj : sections.getChunk(chunkX, chunkZ)) {
+			instances.get(obj)
+					.updateLight();
+		}
+	}
+
+	/**
+	 * Remove the instances of everything in a chunk that's being unloaded, and forget what's still queued there.
+	 */
+	public void onChunkUnload(int chunkX, int chunkZ) {
+		if (!Backend.getInstance()
+				.canUseInstancing()) return;
+
+		queuedAdditions.removeIf(obj -> {
+			BlockPos pos = getWorldPosition(obj);
+			return pos.getX() >> 4 == chunkX && pos.getZ() >> 4 == chunkZ;
+		});
+
+		for (T obj : sections.getChunk(chunkX, chunkZ)) {
+			removeInternal(obj, instances.get(obj));
+		}
+	}
+
 	public void remove(T obj) {
 		if (!Backend.getInstance()
 				.canUseInstancing()) return;
 
+		queuedAdditions.remove(obj);
+
 		if (canInstance(obj)) {
 			IInstance instance = getInstance(obj, false);
 			if (instance != null) removeInternal(obj, instance);
@@ -215,10 +346,14 @@ public abstract class InstanceManager<T> implements MaterialManager.OriginShiftL
 	}
 
 	public void invalidate() {
+		queuedAdditions.clear();
 		instances.values().forEach(IInstance::remove);
 		instances.clear();
 		dynamicInstances.clear();
 		tickableInstances.clear();
+		ticking.clear();
+		dynamic.clear();
+		sections.clear();
 	}
 
 	@Nullable
@@ -237,17 +372,8 @@ public abstract class InstanceManager<T> implements MaterialManager.OriginShiftL
 		}
 	}
 
-	protected void processQueuedAdditions() {
-		ArrayList<T> queued;
-
-		synchronized (queuedAdditions) {
-			queued = new ArrayList<>(queuedAdditions);
-			queuedAdditions.clear();
-		}
-
-		if (queued.size() > 0) {
-			queued.forEach(this::addInternal);
-		}
+	protected void processQueuedAdditions(int cX, int cY, int cZ) {
+		queuedAdditions.process(this::addInternal, creationBudget, cX, cY, cZ);
 	}
 
 	protected void processQueuedUpdates() {
@@ -295,6 +421,9 @@ public abstract class InstanceManager<T> implements MaterialManager.OriginShiftL
 		instances.remove(obj);
 		dynamicInstances.remove(obj);
 		tickableInstances.remove(obj);
+		ticking.remove(obj);
+		dynamic.remove(obj);
+		sections.remove(obj);
 	}
 
 	protected IInstance createInternal(T obj) {
@@ -303,10 +432,17 @@ public abstract class InstanceManager<T> implements MaterialManager.OriginShiftL
 		if (renderer != null) {
 			renderer.updateLight();
 			instances.put(obj, renderer);
+			sections.add(obj, getWorldPosition(obj));
 
-			if (renderer instanceof IDynamicInstance) dynamicInstances.put(obj, (IDynamicInstance) renderer);
+			if (renderer instanceof IDynamicInstance) {
+				dynamicInstances.put(obj, (IDynamicInstance) renderer);
+				dynamic.add(obj, (IDynamicInstance) renderer);
+			}
 
-			if (renderer instanceof ITickableInstance) tickableInstances.put(obj, ((ITickableInstance) renderer));
+			if (renderer instanceof ITickableInstance) {
+				tickableInstances.put(obj, ((ITickableInstance) renderer));
+				ticking.add(obj, (ITickableInstance) renderer);
+			}
 		}
 
 		return renderer;
@@ -315,7 +451,9 @@ public abstract class InstanceManager<T> implements MaterialManager.OriginShiftL
 	@Override
 	public void onOriginShift() {
 		ArrayList<T> instancedTiles = new ArrayList<>(instances.keySet());
+		// objects that were still waiting keep their place, without being queued twice
+		queuedAdditions.drainTo(instancedTiles);
 		invalidate();
-		instancedTiles.forEach(this::add);
+		instancedTiles.forEach(this::queueAdd);
 	}
 }
@@ -54,12 +54,13 @@ public class InstanceWorld {
 	}
 
 	/**
-	 * Instantiate all the necessary instances to render the given world.
+	 * Queue all the necessary instances to render the given world.
+	 * They're created over the next few frames, nearest to the camera first.
 	 */
 	public void loadAll(ClientWorld world) {
-		world.blockEntityList.forEach(tileEntityInstanceManager::add);
+		world.blockEntityList.forEach(tileEntityInstanceManager::queueAdd);
 		world.entitiesForRendering()
-				.forEach(entityInstanceManager::add);
+				.forEach(entityInstanceManager::queueAdd);
 	}
 
 	/**
@@ -71,6 +72,7 @@ public class InstanceWorld {
 	 */
 	public void beginFrame(BeginFrameEvent event) {
 		materialManager.checkAndShiftOrigin(event.getInfo());
+		materialManager.setClippingHelper(event.getClippingHelper());
 
 		tileEntityInstanceManager.beginFrame(event.getInfo());
 		entityInstanceManager.beginFrame(event.getInfo());
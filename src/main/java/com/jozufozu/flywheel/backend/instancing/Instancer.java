@@ -2,20 +2,32 @@ package com.jozufozu.flywheel.backend.instancing;
 
 import java.util.ArrayList;
 import java.util.BitSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.function.Supplier;
 
+import javax.annotation.Nullable;
+
+import org.lwjgl.system.MemoryUtil;
+
 import com.jozufozu.flywheel.backend.Backend;
 import com.jozufozu.flywheel.backend.gl.GlVertexArray;
 import com.jozufozu.flywheel.backend.gl.attrib.VertexFormat;
 import com.jozufozu.flywheel.backend.gl.buffer.GlBuffer;
 import com.jozufozu.flywheel.backend.gl.buffer.GlBufferType;
 import com.jozufozu.flywheel.backend.gl.buffer.MappedBuffer;
+import com.jozufozu.flywheel.backend.gl.buffer.MappedClientBuffer;
+import com.jozufozu.flywheel.backend.gl.buffer.PersistentGlBuffer;
 import com.jozufozu.flywheel.backend.material.MaterialSpec;
+import com.jozufozu.flywheel.backend.model.ArenaModel;
 import com.jozufozu.flywheel.backend.model.IBufferedModel;
-import com.jozufozu.flywheel.backend.model.IndexedModel;
+import com.jozufozu.flywheel.backend.model.ModelArena;
+import com.jozufozu.flywheel.backend.model.PendingModel;
 import com.jozufozu.flywheel.core.model.IModel;
 import com.jozufozu.flywheel.util.AttribUtil;
 
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+
 /**
  * An instancer is how you interact with an instanced model.
  * <p>
@@ -36,13 +48,31 @@ import com.jozufozu.flywheel.util.AttribUtil;
  */
 public class Instancer<D extends InstanceData> {
 
+	/**
+	 * Visible runs separated by at most this many culled instances are drawn together.
+	 */
+	private static final int MAX_CULLED_GAP = 16;
+	private static final int MAX_DRAW_RUNS = 16;
+	/**
+	 * The smallest instance buffer or shared block worth allocating, in instances.
+	 */
+	private static final int MIN_INSTANCES = 16;
+
 	protected final Supplier<IModel> gen;
+	private final PendingModel pending;
 	protected IBufferedModel model;
 
+	protected final MaterialSpec<D> spec;
 	protected final VertexFormat instanceFormat;
 	protected final IInstanceFactory<D> factory;
+	protected final IInstanceWriter<D> writer;
+	protected final IInstanceBounds<D> bounds;
 	protected GlVertexArray vao;
 	protected GlBuffer instanceVBO;
+	/**
+	 * The same object as {@link #instanceVBO} when the instance buffer is persistently mapped, otherwise null.
+	 */
+	protected PersistentGlBuffer persistentVBO;
 	protected int glBufferSize = -1;
 	protected int glInstanceCount = 0;
 	private boolean deleted;
@@ -50,16 +80,100 @@ public class Instancer<D extends InstanceData> {
 
 	protected final ArrayList<D> data = new ArrayList<>();
 
+	/**
+	 * Off-heap copy of the instance buffer, or null if this instancer serializes straight into mapped GL memory.
+	 */
+	protected final InstanceArena arena;
+	/**
+	 * The first slot whose contents were moved by compaction since the last upload.
+	 */
+	private int movedFrom = Integer.MAX_VALUE;
+
+	/**
+	 * Slots that have been marked dirty since the last upload. May contain duplicates and stale indices,
+	 * the dirty flag of whatever instance currently lives in the slot is what counts.
+	 */
+	private IntArrayList dirtySlots = new IntArrayList();
+	private IntArrayList processingSlots = new IntArrayList();
+	private final Object slotLock = new Object();
+
+	/**
+	 * Instances created since the last frame. They get a slot when the queue is drained on the render thread.
+	 */
+	private final ConcurrentLinkedQueue<D> pendingAdds = new ConcurrentLinkedQueue<>();
+	/**
+	 * Instances deleted since the last frame.
+	 */
+	private final ConcurrentLinkedQueue<InstanceData> pendingRemovals = new ConcurrentLinkedQueue<>();
+	private final IntArrayList removedSlots = new IntArrayList();
+
+	/**
+	 * {@code [start, end)} slot ranges to upload this frame.
+	 */
+	private final IntArrayList ranges = new IntArrayList();
+	/**
+	 * Scratch memory for glBufferSubData when there's no arena to upload from.
+	 */
+	private InstanceArena staging;
+
+	/**
+	 * The model's bounding sphere, or null if this instancer can't be culled.
+	 */
+	private float[] modelSphere;
+	private final float[] sphere = new float[4];
+	/**
+	 * Box around every instance as of the last time they were all tested, relative to the origin.
+	 */
+	private float minX, minY, minZ, maxX, maxY, maxZ;
+	private boolean boundsStale = true;
+	/**
+	 * {@code [start, end)} ranges of instances that passed culling.
+	 */
+	private final IntArrayList visibleRuns = new IntArrayList();
+	/**
+	 * Bumped every time the contents of the instance buffer might have changed.
+	 */
+	private int contentVersion;
+
+	/**
+	 * The material's instance buffer, if its instancers share one. Only used with off-heap storage.
+	 */
+	private final SharedInstanceBuffer shared;
+	private SharedInstanceBuffer.Block block;
+	/**
+	 * The slot the instance attributes currently point at in the shared buffer.
+	 */
+	private int boundFirst = -1;
+
+	private final BufferSizer sizer;
+
 	boolean anyToRemove;
 	boolean anyToUpdate;
 
 	public Instancer(Supplier<IModel> model, MaterialSpec<D> spec) {
+		this(model, spec, null);
+	}
+
+	/**
+	 * @param shared An instance buffer to take a block of instead of creating one.
+	 */
+	public Instancer(Supplier<IModel> model, MaterialSpec<D> spec, @Nullable SharedInstanceBuffer shared) {
 		this.gen = model;
+		this.pending = new PendingModel(model, spec.usesAsyncBaking());
+		this.spec = spec;
 		this.factory = spec.getInstanceFactory();
+		this.writer = spec.getWriter();
+		this.bounds = spec.getBounds();
 		this.instanceFormat = spec.getInstanceFormat();
+		this.arena = spec.usesOffHeapStorage() ? new InstanceArena(instanceFormat.getStride()) : null;
+		this.shared = arena != null ? shared : null;
+		this.sizer = new BufferSizer(spec.getUploadPolicy());
 	}
 
 	/**
+	 * Safe to call from any thread. The new instance can be used right away, but only shows up once the render
+	 * thread gets to it.
+	 *
 	 * @return a handle to a new copy of this model.
 	 */
 	public D createInstance() {
@@ -75,31 +189,164 @@ public class Instancer<D extends InstanceData> {
 	public void stealInstance(D inOther) {
 		if (inOther.owner == this) return;
 
+		// the old owner has no way to find the instance once we give it a new slot, so it has to look for it
 		inOther.owner.anyToRemove = true;
 		_add(inOther);
 	}
 
 	public void render() {
-		if (!isInitialized()) init();
+		render(null);
+	}
+
+	/**
+	 * @param culling Used to skip instances that can't be seen, or null to draw everything.
+	 */
+	public void render(@Nullable CullingContext culling) {
+		if (!isInitialized() && !init()) return;
 		if (deleted) return;
 
 		vao.bind();
 		renderSetup();
 
-		if (glInstanceCount > 0) model.drawInstances(glInstanceCount);
+		if (glInstanceCount > 0) {
+			if (culling != null) {
+				drawVisible(culling);
+			} else {
+				model.drawInstances(glInstanceCount);
+			}
+		}
+
+		if (persistentVBO != null) persistentVBO.fence();
+
+		vao.unbind();
+	}
+
+	/**
+	 * Bring the instance buffer up to date without drawing anything,
+	 * for renderers that draw from it some other way.
+	 */
+	void update() {
+		if (!isInitialized() && !init()) return;
+		if (deleted) return;
 
+		vao.bind();
+		renderSetup();
 		vao.unbind();
 	}
 
-	private void init() {
-		model = new IndexedModel(gen.get());
+	/**
+	 * Call after everything that reads from the instance buffer this frame has been issued.
+	 */
+	void fence() {
+		if (persistentVBO != null) persistentVBO.fence();
+	}
+
+	/**
+	 * @return True if this instancer's model can be drawn together with other models:
+	 * made of quads, and living in a model arena.
+	 */
+	boolean canDrawIndirect() {
+		if (!isInitialized() && !init()) return false;
+
+		return !deleted && model instanceof ArenaModel && ((ArenaModel) model).getElementBuffer().quads;
+	}
+
+	ArenaModel getArenaModel() {
+		return (ArenaModel) model;
+	}
+
+	GlBuffer getInstanceBuffer() {
+		return instanceVBO;
+	}
+
+	/**
+	 * @return The offset in bytes of the first instance in the instance buffer.
+	 */
+	int getInstanceBufferOffset() {
+		if (shared != null) {
+			return block != null ? block.getFirst() * instanceFormat.getStride() : 0;
+		}
+		return persistentVBO != null ? persistentVBO.getRegionOffset() : 0;
+	}
+
+	int getInstanceCount() {
+		return glInstanceCount;
+	}
+
+	/**
+	 * @return The bytes of GPU memory set aside for this instancer's instances, slack included.
+	 */
+	public long getAllocatedBytes() {
+		if (shared != null) {
+			return block != null ? (long) block.getCapacity() * instanceFormat.getStride() : 0;
+		}
+		if (persistentVBO != null) {
+			return (long) persistentVBO.getRegionSize() * persistentVBO.getRegionCount();
+		}
+		return Math.max(glBufferSize, 0);
+	}
+
+	/**
+	 * @return The bytes of GPU memory taken up by live instances.
+	 */
+	public long getUsedBytes() {
+		return (long) glInstanceCount * instanceFormat.getStride();
+	}
+
+	/**
+	 * @return The bytes of off-heap client memory used to stage this instancer's instances.
+	 */
+	public long getClientBytes() {
+		long bytes = 0;
+		if (arena != null) bytes += (long) arena.getCapacity() * arena.getStride();
+		if (staging != null) bytes += (long) staging.getCapacity() * staging.getStride();
+		return bytes;
+	}
+
+	int getContentVersion() {
+		return contentVersion;
+	}
+
+	/**
+	 * @return True if this instancer's instances live in the material's shared buffer.
+	 */
+	boolean usesSharedBuffer() {
+		return shared != null;
+	}
+
+	/**
+	 * @return The slot of the first instance in the shared buffer.
+	 */
+	int getBaseInstance() {
+		return block != null ? block.getFirst() : 0;
+	}
+
+	/**
+	 * @return False if the model is still baking, and nothing can be drawn yet.
+	 */
+	private boolean init() {
+		if (deleted || !pending.isReady()) return false;
+
+		IModel iModel = pending.get();
+		model = ModelArena.upload(iModel);
 		initialized = true;
 
+		if (bounds != null) {
+			modelSphere = PendingModel.computeBoundingSphere(iModel);
+		}
+		PendingModel.release(iModel);
+
 		if (model.getVertexCount() <= 0)
 			throw new IllegalArgumentException("Refusing to instance a model with no vertices.");
 
 		vao = new GlVertexArray();
-		instanceVBO = new GlBuffer(GlBufferType.ARRAY_BUFFER);
+		if (shared != null) {
+			instanceVBO = shared.getBuffer();
+		} else if (arena != null && Backend.getInstance().compat.bufferStorageSupported()) {
+			instanceVBO = persistentVBO = new PersistentGlBuffer(GlBufferType.ARRAY_BUFFER);
+		} else {
+			instanceVBO = new GlBuffer(GlBufferType.ARRAY_BUFFER);
+		}
 
 		vao.bind();
 
@@ -111,6 +358,8 @@ public class Instancer<D extends InstanceData> {
 		vao.unbind();
 
 		model.clearState();
+
+		return true;
 	}
 
 	public boolean isInitialized() {
@@ -118,7 +367,7 @@ public class Instancer<D extends InstanceData> {
 	}
 
 	public boolean isEmpty() {
-		return !anyToUpdate && !anyToRemove && glInstanceCount == 0;
+		return !anyToUpdate && !anyToRemove && pendingAdds.isEmpty() && pendingRemovals.isEmpty() && glInstanceCount == 0;
 	}
 
 	/**
@@ -126,6 +375,11 @@ public class Instancer<D extends InstanceData> {
 	 */
 	public void clear() {
 		data.clear();
+		pendingAdds.clear();
+		pendingRemovals.clear();
+		synchronized (slotLock) {
+			dirtySlots.clear();
+		}
 		anyToRemove = true;
 	}
 
@@ -140,36 +394,133 @@ public class Instancer<D extends InstanceData> {
 		if (isInitialized()) {
 			model.delete();
 
-			instanceVBO.delete();
+			if (shared != null) {
+				if (block != null) shared.free(block);
+			} else {
+				instanceVBO.delete();
+			}
 			vao.delete();
+		} else {
+			pending.cancel();
+		}
+
+		if (arena != null) {
+			arena.delete();
+		}
+
+		if (staging != null) {
+			staging.delete();
 		}
 	}
 
 	private D _add(D instanceData) {
 		instanceData.owner = this;
+		instanceData.index = -1;
 
+		// new instances are dirty until they're first written, so markDirty won't queue a slot they don't have yet
 		instanceData.dirty = true;
+		pendingAdds.add(instanceData);
 		anyToUpdate = true;
-		synchronized (data) {
+
+		return instanceData;
+	}
+
+	/**
+	 * Give every instance created since the last frame a slot, unless it was deleted or stolen in the meantime.
+	 */
+	private void drainPendingAdds() {
+		D instanceData;
+		while ((instanceData = pendingAdds.poll()) != null) {
+			if (instanceData.removed || instanceData.owner != this) continue;
+
+			instanceData.index = data.size();
 			data.add(instanceData);
+			markDirty(instanceData);
 		}
+	}
 
-		return instanceData;
+	/**
+	 * Queue the given instance to be uploaded. Safe to call from multiple threads at once.
+	 */
+	void markDirty(InstanceData instance) {
+		synchronized (slotLock) {
+			dirtySlots.add(instance.index);
+		}
+		anyToUpdate = true;
+	}
+
+	/**
+	 * Queue the given instance to be removed. Safe to call from multiple threads at once.
+	 */
+	void markRemoved(InstanceData instance) {
+		pendingRemovals.add(instance);
+	}
+
+	/**
+	 * Take all queued dirty slots, clearing the dirty flags of the instances found in them.
+	 * The returned list is reused, and only contains each live slot once.
+	 */
+	private IntArrayList drainDirtySlots() {
+		IntArrayList slots;
+		synchronized (slotLock) {
+			slots = dirtySlots;
+			dirtySlots = processingSlots;
+			processingSlots = slots;
+		}
+
+		final int size = data.size();
+		int live = 0;
+		for (int k = 0; k < slots.size(); k++) {
+			int i = slots.getInt(k);
+			if (i < 0 || i >= size) continue;
+
+			D element = data.get(i);
+			if (!element.dirty) continue;
+
+			element.dirty = false;
+			slots.set(live++, i);
+		}
+		slots.size(live);
+
+		return slots;
 	}
 
 	protected void renderSetup() {
-		if (anyToRemove) {
-			removeDeletedInstances();
+		// reset the flags first, so anything that comes in from another thread while we work is seen next frame
+		final boolean fullScan = anyToRemove;
+		final boolean anyRemovals = fullScan || !pendingRemovals.isEmpty();
+		final boolean anyUpdates = anyToUpdate || !pendingAdds.isEmpty();
+		anyToRemove = anyToUpdate = false;
+
+		if (anyRemovals || anyUpdates) {
+			boundsStale = true;
+			contentVersion++;
 		}
 
-		instanceVBO.bind();
-		if (!realloc()) {
+		drainPendingAdds();
 
-			if (anyToRemove) {
-				clearBufferTail();
+		if (anyRemovals) {
+			if (spec.usesSwapRemove()) {
+				swapRemoveDeletedInstances(fullScan);
+			} else {
+				removeDeletedInstances();
 			}
+		}
 
-			if (anyToUpdate) {
+		instanceVBO.bind();
+		if (shared != null) {
+			updateShared();
+		} else if (persistentVBO != null) {
+			updatePersistent();
+		} else if (arena != null) {
+			updateFromArena();
+		} else if (!realloc()) {
+
+			if (anyRemovals && !spec.usesSwapRemove()) {
+				invalidateBufferTail();
+			}
+
+			if (anyUpdates || anyRemovals) {
 				updateBuffer();
 			}
 
@@ -177,80 +528,406 @@ public class Instancer<D extends InstanceData> {
 		}
 
 		instanceVBO.unbind();
+	}
 
-		anyToRemove = anyToUpdate = false;
+	/**
+	 * Draw only the instances that might be visible.
+	 * <p>
+	 *     If nothing changed since last frame and the box around every instance is out of view, nothing is drawn.
+	 *     Otherwise every instance is tested, and runs of visible instances are drawn by pointing the instance
+	 *     attributes at the start of each run. Runs separated by a few hidden instances are merged to save draw calls.
+	 * </p>
+	 */
+	private void drawVisible(CullingContext culling) {
+		IntArrayList visibleRuns = collectVisibleRuns(culling);
+
+		if (visibleRuns == null) {
+			model.drawInstances(glInstanceCount);
+			return;
+		}
+
+		if (visibleRuns.isEmpty()) return;
+
+		final int size = glInstanceCount;
+		if (visibleRuns.size() == 2 && visibleRuns.getInt(0) == 0 && visibleRuns.getInt(1) == size) {
+			model.drawInstances(size);
+			return;
+		}
+
+		final int base = getInstanceBufferOffset();
+		final int stride = instanceFormat.getStride();
+		final int staticAttributes = model.getAttributeCount();
+
+		instanceVBO.bind();
+		for (int r = 0; r < visibleRuns.size(); r += 2) {
+			int runStart = visibleRuns.getInt(r);
+			int runEnd = visibleRuns.getInt(r + 1);
+
+			instanceFormat.vertexAttribPointers(staticAttributes, base + runStart * stride);
+			model.drawInstances(runEnd - runStart);
+		}
+		instanceFormat.vertexAttribPointers(staticAttributes, base);
+		instanceVBO.unbind();
 	}
 
-	private void clearBufferTail() {
-		int size = data.size();
-		final int offset = size * instanceFormat.getStride();
-		final int length = glBufferSize - offset;
-		if (length > 0) {
-			instanceVBO.getBuffer(offset, length)
-					.putByteArray(new byte[length])
-					.flush();
+	/**
+	 * Find the runs of instances that might be visible.
+	 *
+	 * @return {@code [start, end)} pairs, empty if nothing is visible,
+	 * or null if this instancer can't be culled and everything should be drawn.
+	 */
+	@Nullable
+	IntArrayList collectVisibleRuns(CullingContext culling) {
+		if (modelSphere == null) return null;
+
+		visibleRuns.clear();
+
+		if (!boundsStale && !culling.isVisible(minX, minY, minZ, maxX, maxY, maxZ)) return visibleRuns;
+
+		final int size = glInstanceCount;
+		final float[] sphere = this.sphere;
+
+		float minX = Float.POSITIVE_INFINITY, minY = Float.POSITIVE_INFINITY, minZ = Float.POSITIVE_INFINITY;
+		float maxX = Float.NEGATIVE_INFINITY, maxY = Float.NEGATIVE_INFINITY, maxZ = Float.NEGATIVE_INFINITY;
+
+		int start = -1;
+		int end = -1;
+		for (int i = 0; i < size; i++) {
+			System.arraycopy(modelSphere, 0, sphere, 0, 4);
+			bounds.transformSphere(data.get(i), sphere);
+
+			float r = sphere[3];
+			minX = Math.min(minX, sphere[0] - r);
+			minY = Math.min(minY, sphere[1] - r);
+			minZ = Math.min(minZ, sphere[2] - r);
+			maxX = Math.max(maxX, sphere[0] + r);
+			maxY = Math.max(maxY, sphere[1] + r);
+			maxZ = Math.max(maxZ, sphere[2] + r);
+
+			if (!culling.isVisible(sphere)) continue;
+
+			if (start >= 0 && i - end <= MAX_CULLED_GAP) {
+				end = i + 1;
+			} else {
+				if (start >= 0) {
+					visibleRuns.add(start);
+					visibleRuns.add(end);
+				}
+				start = i;
+				end = i + 1;
+			}
 		}
+
+		if (start >= 0) {
+			visibleRuns.add(start);
+			visibleRuns.add(end);
+		}
+
+		this.minX = minX;
+		this.minY = minY;
+		this.minZ = minZ;
+		this.maxX = maxX;
+		this.maxY = maxY;
+		this.maxZ = maxZ;
+		boundsStale = false;
+
+		if (visibleRuns.size() / 2 > MAX_DRAW_RUNS) {
+			int first = visibleRuns.getInt(0);
+			int last = visibleRuns.getInt(visibleRuns.size() - 1);
+			visibleRuns.clear();
+			visibleRuns.add(first);
+			visibleRuns.add(last);
+		}
+
+		return visibleRuns;
 	}
 
-	private void updateBuffer() {
+	/**
+	 * Serialize changed instances into the arena, then copy everything that changed to the GPU.
+	 */
+	private void updateFromArena() {
 		final int size = data.size();
+		final int stride = instanceFormat.getStride();
 
-		if (size <= 0) return;
+		arena.ensureCapacity(size);
+
+		IntArrayList slots = drainDirtySlots();
+		writeToArena(slots);
+
+		int requiredSize = size * stride;
+		int newSize = sizer.resize(requiredSize, glBufferSize, stride * MIN_INSTANCES);
+		if (newSize >= 0) {
+			glBufferSize = newSize;
+			instanceVBO.alloc(glBufferSize);
 
+			informAttribDivisors();
+
+			ranges.clear();
+			if (size > 0) {
+				ranges.add(0);
+				ranges.add(size);
+			}
+		} else {
+			coalesceRanges(slots, movedFrom, size);
+
+			if (ranges.size() == 2 && ranges.getInt(0) == 0 && ranges.getInt(1) == size) {
+				// everything is about to be replaced, orphan the old storage instead of waiting for the GPU to be done with it
+				instanceVBO.alloc(glBufferSize);
+			}
+		}
+
+		movedFrom = Integer.MAX_VALUE;
+		slots.clear();
+
+		uploadRanges();
+
+		glInstanceCount = size;
+	}
+
+	/**
+	 * Serialize changed instances into the arena, then copy everything that changed into this instancer's block
+	 * of the shared buffer. Moves to a bigger block when this one fills up.
+	 */
+	private void updateShared() {
+		final int size = data.size();
 		final int stride = instanceFormat.getStride();
-		final BitSet dirtySet = getDirtyBitSet();
 
-		if (dirtySet.isEmpty()) return;
+		arena.ensureCapacity(size);
 
-		final int firstDirty = dirtySet.nextSetBit(0);
-		final int lastDirty = dirtySet.previousSetBit(size);
+		IntArrayList slots = drainDirtySlots();
+		writeToArena(slots);
 
-		final int offset = firstDirty * stride;
-		final int length = (1 + lastDirty - firstDirty) * stride;
+		int newCapacity = sizer.resize(size, block != null ? block.getCapacity() : 0, MIN_INSTANCES);
+		if (newCapacity >= 0) {
+			if (block != null) shared.free(block);
+			block = shared.allocate(newCapacity);
 
-		if (length > 0) {
-			MappedBuffer mapped = instanceVBO.getBuffer(offset, length);
+			// the new block starts out empty
+			ranges.clear();
+			ranges.add(0);
+			ranges.add(size);
+		} else {
+			coalesceRanges(slots, movedFrom, size);
+		}
 
-			dirtySet.stream()
-					.forEach(i -> {
-						final D d = data.get(i);
+		movedFrom = Integer.MAX_VALUE;
+		slots.clear();
 
-						mapped.position(i * stride);
-						d.write(mapped);
-					});
-			mapped.flush();
+		if (block != null) {
+			// someone else's allocation may have moved our block
+			if (block.getFirst() != boundFirst) {
+				boundFirst = block.getFirst();
+				informAttribDivisors(boundFirst * stride);
+			}
+
+			uploadRanges(boundFirst * stride);
+		} else {
+			ranges.clear();
 		}
+
+		glInstanceCount = size;
 	}
 
-	private BitSet getDirtyBitSet() {
+	/**
+	 * Serialize changed instances into the arena, then bring the next region of the persistent buffer up to date
+	 * if anything changed. Nothing is mapped or unmapped here.
+	 */
+	private void updatePersistent() {
 		final int size = data.size();
-		final BitSet dirtySet = new BitSet(size);
+		final int stride = instanceFormat.getStride();
+		final int requiredSize = size * stride;
+
+		arena.ensureCapacity(size);
+
+		IntArrayList slots = drainDirtySlots();
+		writeToArena(slots);
+
+		int newSize = sizer.resize(requiredSize, glBufferSize, stride * MIN_INSTANCES);
+		if (newSize >= 0) {
+			glBufferSize = newSize;
+			persistentVBO.allocRegions(glBufferSize);
+			persistentVBO.markDirty(0, requiredSize);
+		} else {
+			coalesceRanges(slots, movedFrom, size);
+			for (int r = 0; r < ranges.size(); r += 2) {
+				persistentVBO.markDirty(ranges.getInt(r) * stride, ranges.getInt(r + 1) * stride);
+			}
+			ranges.clear();
+		}
 
-		for (int i = 0; i < size; i++) {
-			D element = data.get(i);
-			if (element.dirty) {
-				dirtySet.set(i);
+		movedFrom = Integer.MAX_VALUE;
+		slots.clear();
 
-				element.dirty = false;
+		if (persistentVBO.isCurrentRegionStale()) {
+			persistentVBO.writeNextRegion(arena.address(0), requiredSize);
+			informAttribDivisors(persistentVBO.getRegionOffset());
+		}
+
+		glInstanceCount = size;
+	}
+
+	/**
+	 * Group the dirty slots into {@code [start, end)} pairs in {@link #ranges}, merging runs separated by small gaps.
+	 *
+	 * @param slots    The dirty slots. Will be sorted.
+	 * @param tailFrom Every slot from here to the end is dirty too.
+	 * @param size     The number of instances.
+	 */
+	private void coalesceRanges(IntArrayList slots, int tailFrom, int size) {
+		ranges.clear();
+
+		final UploadPolicy policy = spec.getUploadPolicy();
+		final int maxGap = policy.getMaxGap() / instanceFormat.getStride();
+		final int count = slots.size();
+
+		IntArrays.quickSort(slots.elements(), 0, count);
+
+		int start = -1;
+		int end = -1;
+		for (int k = 0; k <= count; k++) {
+			int lo;
+			int hi;
+			if (k < count) {
+				lo = slots.getInt(k);
+				if (lo >= tailFrom) continue;
+				hi = lo + 1;
+			} else if (tailFrom < size) {
+				lo = tailFrom;
+				hi = size;
+			} else {
+				break;
 			}
+
+			if (start >= 0 && lo - end <= maxGap) {
+				end = hi;
+			} else {
+				if (start >= 0) {
+					ranges.add(start);
+					ranges.add(end);
+				}
+				start = lo;
+				end = hi;
+			}
+		}
+
+		if (start >= 0) {
+			ranges.add(start);
+			ranges.add(end);
+		}
+
+		if (ranges.size() / 2 > policy.getMaxRanges()) {
+			int first = ranges.getInt(0);
+			int last = ranges.getInt(ranges.size() - 1);
+			ranges.clear();
+			ranges.add(first);
+			ranges.add(last);
+		}
+	}
+
+	/**
+	 * Write every range in {@link #ranges} to the instance VBO, either by mapping it or with glBufferSubData.
+	 */
+	private void uploadRanges() {
+		uploadRanges(0);
+	}
+
+	/**
+	 * @param base The offset in bytes of slot 0 in the instance buffer. Must be 0 without off-heap storage.
+	 */
+	private void uploadRanges(int base) {
+		final UploadPolicy policy = spec.getUploadPolicy();
+		final boolean canMapRange = Backend.getInstance().compat.mapBufferRangeSupported();
+		final int stride = instanceFormat.getStride();
+
+		for (int r = 0; r < ranges.size(); r += 2) {
+			final int start = ranges.getInt(r);
+			final int end = ranges.getInt(r + 1);
+			final int offset = base + start * stride;
+			final int length = (end - start) * stride;
+
+			if (policy.useSubData(length, canMapRange)) {
+				long address;
+				if (arena != null) {
+					address = arena.address(start);
+				} else {
+					if (staging == null) staging = new InstanceArena(stride);
+					staging.ensureCapacity(end - start);
+
+					for (int i = start; i < end; i++) {
+						writeInstance(staging, i - start, data.get(i));
+					}
+					address = staging.address(0);
+				}
+
+				instanceVBO.subData(offset, address, length);
+			} else {
+				MappedBuffer mapped = instanceVBO.getBuffer(offset, length, policy.getMapAccess());
+
+				if (arena != null) {
+					mapped.position(offset);
+					arena.copyTo(MemoryUtil.memAddress(mapped.unwrap()), start, end - start);
+				} else {
+					// the whole range is invalidated, so clean instances in the gaps have to be written too
+					for (int i = start; i < end; i++) {
+						writeInstance(mapped, i, data.get(i));
+					}
+				}
+				mapped.flush();
+			}
+		}
+
+		ranges.clear();
+	}
+
+	/**
+	 * Let the driver drop the slots that were in use last frame and aren't anymore.
+	 * Nothing past the instance count is ever drawn, so they don't have to be cleared.
+	 */
+	private void invalidateBufferTail() {
+		final int stride = instanceFormat.getStride();
+		final int offset = data.size() * stride;
+		final int length = glInstanceCount * stride - offset;
+		if (length > 0) {
+			instanceVBO.invalidate(offset, length);
 		}
-		return dirtySet;
+	}
+
+	private void updateBuffer() {
+		final int size = data.size();
+
+		if (size <= 0) return;
+
+		final IntArrayList slots = drainDirtySlots();
+
+		if (slots.isEmpty()) return;
+
+		coalesceRanges(slots, Integer.MAX_VALUE, size);
+		slots.clear();
+
+		uploadRanges();
 	}
 
 	private boolean realloc() {
 		int size = this.data.size();
 		int stride = instanceFormat.getStride();
 		int requiredSize = size * stride;
-		if (requiredSize > glBufferSize) {
-			glBufferSize = requiredSize + stride * 16;
+		int newSize = sizer.resize(requiredSize, glBufferSize, stride * MIN_INSTANCES);
+		if (newSize >= 0) {
+			glBufferSize = newSize;
 			instanceVBO.alloc(glBufferSize);
 
 			MappedBuffer buffer = instanceVBO.getBuffer(0, glBufferSize);
-			for (D datum : data) {
-				datum.write(buffer);
+			for (int i = 0; i < size; i++) {
+				D datum = data.get(i);
+				writeInstance(buffer, i, datum);
+				datum.dirty = false;
 			}
 			buffer.flush();
 
+			synchronized (slotLock) {
+				dirtySlots.clear();
+			}
+
 			glInstanceCount = size;
 
 			informAttribDivisors();
@@ -260,7 +937,58 @@ public class Instancer<D extends InstanceData> {
 		return false;
 	}
 
+	/**
+	 * Fill each removed slot with the last instance. Only the queued slots are visited and each removal costs one
+	 * re-serialized instance, so removing a few instances from a huge instancer is cheap. Doesn't preserve order.
+	 */
+	private void swapRemoveDeletedInstances(boolean fullScan) {
+		final IntArrayList slots = removedSlots;
+
+		InstanceData instance;
+		while ((instance = pendingRemovals.poll()) != null) {
+			int i = instance.index;
+			if (i >= 0 && i < data.size() && data.get(i) == instance) {
+				slots.add(i);
+			}
+		}
+
+		if (fullScan) {
+			for (int i = 0; i < data.size(); i++) {
+				final D element = data.get(i);
+				if (element.removed || element.owner != this) {
+					slots.add(i);
+				}
+			}
+		}
+
+		// Go from the back, so the last instance is never one that still has to be removed.
+		IntArrays.quickSort(slots.elements(), 0, slots.size());
+		for (int k = slots.size() - 1; k >= 0; k--) {
+			final int i = slots.getInt(k);
+			if (i >= data.size()) continue;
+
+			final D element = data.get(i);
+			if (!element.removed && element.owner == this) continue;
+
+			final int last = data.size() - 1;
+			if (i != last) {
+				D moved = data.get(last);
+				data.set(i, moved);
+				moved.index = i;
+
+				moved.dirty = true;
+				markDirty(moved);
+			}
+
+			data.remove(last);
+		}
+
+		slots.clear();
+	}
+
 	private void removeDeletedInstances() {
+		pendingRemovals.clear();
+
 		// Figure out which elements are to be removed.
 		final int oldSize = this.data.size();
 		int removeCount = 0;
@@ -282,7 +1010,19 @@ public class Instancer<D extends InstanceData> {
 			if (i != j) {
 				D element = data.get(i);
 				data.set(j, element);
-				element.dirty = true;
+				element.index = j;
+
+				if (arena != null) {
+					// the serialized bytes move with the instance, they just need to be uploaded again
+					arena.move(i, j);
+					if (j < movedFrom) movedFrom = j;
+				}
+
+				// any slot queued for this instance is stale now
+				if (arena == null || element.dirty) {
+					element.dirty = true;
+					markDirty(element);
+				}
 			}
 		}
 
@@ -293,9 +1033,69 @@ public class Instancer<D extends InstanceData> {
 
 	}
 
+	/**
+	 * Serialize the given slots into the arena, spreading the work over the {@link JobSystem} if there are
+	 * enough of them. Each slot is a disjoint piece of memory, so no synchronization is needed.
+	 */
+	private void writeToArena(IntArrayList slots) {
+		final int count = slots.size();
+		final int threshold = spec.getUploadPolicy().getParallelThreshold();
+
+		if (threshold > 0 && count >= threshold) {
+			int[] elements = slots.elements();
+			JobSystem.get()
+					.forEachChunk(count, spec.getUploadPolicy().getParallelChunkSize(), (from, to) -> writeRange(elements, from, to));
+		} else {
+			for (int k = 0; k < count; k++) {
+				int i = slots.getInt(k);
+				writeInstance(arena, i, data.get(i));
+			}
+		}
+	}
+
+	private void writeRange(int[] slots, int from, int to) {
+		if (writer != null) {
+			for (int k = from; k < to; k++) {
+				int i = slots[k];
+				writer.write(data.get(i), arena.address(i));
+			}
+		} else {
+			// the arena's own view has a position, so every task needs its own
+			int stride = arena.getStride();
+			MappedClientBuffer view = new MappedClientBuffer().wrap(arena.address(0), arena.getCapacity() * stride);
+			for (int k = from; k < to; k++) {
+				int i = slots[k];
+				view.position(i * stride);
+				data.get(i).write(view);
+			}
+		}
+	}
+
+	private void writeInstance(InstanceArena target, int slot, D instance) {
+		if (writer != null) {
+			writer.write(instance, target.address(slot));
+		} else {
+			target.write(slot, instance);
+		}
+	}
+
+	private void writeInstance(MappedBuffer target, int slot, D instance) {
+		target.position(slot * instanceFormat.getStride());
+
+		if (writer != null) {
+			writer.write(instance, MemoryUtil.memAddress(target.unwrap()));
+		} else {
+			instance.write(target);
+		}
+	}
+
 	private void informAttribDivisors() {
+		informAttribDivisors(0);
+	}
+
+	private void informAttribDivisors(int baseOffset) {
 		int staticAttributes = model.getAttributeCount();
-		instanceFormat.vertexAttribPointers(staticAttributes);
+		instanceFormat.vertexAttribPointers(staticAttributes, baseOffset);
 
 		for (int i = 0; i < instanceFormat.getAttributeCount(); i++) {
 			Backend.getInstance().compat.instancedArrays.vertexAttribDivisor(i + staticAttributes, 1);
@@ -0,0 +1,130 @@
+package com.jozufozu.flywheel.backend.instancing;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nullable;
+
+import com.jozufozu.flywheel.backend.Backend;
+import com.jozufozu.flywheel.config.FlwConfig;
+
+/**
+ * Flywheel's own worker threads, for spreading per-instance work over several cores.
+ *
+ * <p>
+ *     Work is split into fixed size chunks of a dense range, so each task walks contiguous memory and the split
+ *     doesn't depend on how a collection happens to be laid out. The workers belong to Flywheel alone, so other mods
+ *     saturating the common ForkJoin pool don't hold up a frame.
+ * </p>
+ * <p>
+ *     With a single worker nothing is handed off: every job runs on the calling thread, in order.
+ * </p>
+ */
+public class JobSystem {
+
+	/**
+	 * How many elements a task handles by default. Small enough to balance well, large enough that the task overhead
+	 * doesn't matter.
+	 */
+	public static final int DEFAULT_CHUNK_SIZE = 64;
+
+	@Nullable
+	private static JobSystem instance;
+
+	private final int workers;
+	@Nullable
+	private final ForkJoinPool pool;
+
+	private JobSystem(int workers) {
+		this.workers = workers;
+
+		if (workers > 1) {
+			AtomicInteger threadIndex = new AtomicInteger();
+			pool = new ForkJoinPool(workers, p -> {
+				ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+				thread.setName("Flywheel Worker-" + threadIndex.getAndIncrement());
+				thread.setDaemon(true);
+				return thread;
+			}, (thread, e) -> Backend.log.error("Uncaught exception in " + thread.getName(), e), false);
+		} else {
+			pool = null;
+		}
+	}
+
+	/**
+	 * @return The job system, started with the configured number of workers the first time this is called.
+	 */
+	public static synchronized JobSystem get() {
+		if (instance == null) {
+			instance = new JobSystem(resolveWorkers(FlwConfig.get()
+					.workerThreads()));
+		}
+		return instance;
+	}
+
+	private static int resolveWorkers(int configured) {
+		if (configured > 0) return configured;
+
+		// leave a core for the render thread and one for the server
+		int cores = Runtime.getRuntime()
+				.availableProcessors();
+		return Math.max(1, Math.min(cores - 2, 8));
+	}
+
+	public int getWorkers() {
+		return workers;
+	}
+
+	/**
+	 * Run a job over the range {@code [0, count)}, split into chunks of at most {@code chunkSize} elements.
+	 * Returns once the whole range has been processed. Chunks may run concurrently and in any order, unless there's
+	 * only one worker.
+	 */
+	public void forEachChunk(int count, int chunkSize, RangeJob job) {
+		if (count <= 0) return;
+
+		if (pool == null || count <= chunkSize) {
+			job.run(0, count);
+		} else {
+			pool.invoke(new RangeTask(job, 0, count, Math.max(1, chunkSize)));
+		}
+	}
+
+	@FunctionalInterface
+	public interface RangeJob {
+		/**
+		 * @param from The first index to process, inclusive.
+		 * @param to   The last index to process, exclusive.
+		 */
+		void run(int from, int to);
+	}
+
+	private static class RangeTask extends RecursiveAction {
+		private final RangeJob job;
+		private final int from;
+		private final int to;
+		private final int chunkSize;
+
+		private RangeTask(RangeJob job, int from, int to, int chunkSize) {
+			this.job = job;
+			this.from = from;
+			this.to = to;
+			this.chunkSize = chunkSize;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > chunkSize) {
+				// split on a chunk boundary so every chunk is full except the last
+				int chunks = (to - from + chunkSize - 1) / chunkSize;
+				int mid = from + (chunks / 2) * chunkSize;
+				invokeAll(new RangeTask(job, from, mid, chunkSize), new RangeTask(job, mid, to, chunkSize));
+				return;
+			}
+
+			job.run(from, to);
+		}
+	}
+}
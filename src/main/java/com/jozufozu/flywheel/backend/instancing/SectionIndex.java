@@ -0,0 +1,129 @@
+package com.jozufozu.flywheel.backend.instancing;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.SectionPos;
+
+/**
+ * Objects grouped by the chunk section they're in, so spatial queries don't have to scan every instance.
+ *
+ * <p>
+ *     Sections are keyed by {@link SectionPos#asLong}. Each holds a plain list of objects, which are only ever few.
+ *     Objects that move have to be {@link #move moved} to keep the index accurate.
+ * </p>
+ */
+public class SectionIndex<T> {
+
+	private final Long2ObjectOpenHashMap<ObjectArrayList<T>> sections = new Long2ObjectOpenHashMap<>();
+	private final Long2ObjectOpenHashMap<LongOpenHashSet> chunks = new Long2ObjectOpenHashMap<>();
+	private final Object2LongOpenHashMap<T> sectionOf = new Object2LongOpenHashMap<>();
+
+	public void add(T obj, BlockPos pos) {
+		add(obj, sectionKey(pos));
+	}
+
+	public void add(T obj, long section) {
+		if (sectionOf.containsKey(obj)) remove(obj);
+
+		sectionOf.put(obj, section);
+
+		ObjectArrayList<T> list = sections.get(section);
+		if (list == null) {
+			list = new ObjectArrayList<>();
+			sections.put(section, list);
+			chunks.computeIfAbsent(chunkOf(section), $ -> new LongOpenHashSet())
+					.add(section);
+		}
+		list.add(obj);
+	}
+
+	public void remove(T obj) {
+		if (!sectionOf.containsKey(obj)) return;
+
+		long section = sectionOf.removeLong(obj);
+		ObjectArrayList<T> list = sections.get(section);
+
+		int i = list.indexOf(obj);
+		// order doesn't matter, swap the last one in
+		list.set(i, list.get(list.size() - 1));
+		list.remove(list.size() - 1);
+
+		if (list.isEmpty()) {
+			sections.remove(section);
+
+			long chunk = chunkOf(section);
+			LongOpenHashSet inChunk = chunks.get(chunk);
+			inChunk.remove(section);
+			if (inChunk.isEmpty()) chunks.remove(chunk);
+		}
+	}
+
+	/**
+	 * Update where an object is.
+	 *
+	 * @return true if the object changed sections.
+	 */
+	public boolean move(T obj, BlockPos pos) {
+		long section = sectionKey(pos);
+
+		if (sectionOf.containsKey(obj) && sectionOf.getLong(obj) == section) return false;
+
+		add(obj, section);
+		return true;
+	}
+
+	/**
+	 * @return The objects in the given section. Don't modify the index while iterating over it.
+	 */
+	public List<T> getSection(long section) {
+		List<T> list = sections.get(section);
+		return list != null ? Collections.unmodifiableList(list) : Collections.emptyList();
+	}
+
+	public void forEachInSection(long section, Consumer<T> action) {
+		ObjectArrayList<T> list = sections.get(section);
+		if (list != null) list.forEach(action);
+	}
+
+	/**
+	 * @return All objects in every section of the given chunk, copied so the index can be modified while using them.
+	 */
+	public List<T> getChunk(int chunkX, int chunkZ) {
+		LongOpenHashSet inChunk = chunks.get(ChunkPos.asLong(chunkX, chunkZ));
+
+		if (inChunk == null) return Collections.emptyList();
+
+		ObjectArrayList<T> out = new ObjectArrayList<>();
+		for (LongIterator it = inChunk.iterator(); it.hasNext(); ) {
+			out.addAll(sections.get(it.nextLong()));
+		}
+		return out;
+	}
+
+	public int size() {
+		return sectionOf.size();
+	}
+
+	public void clear() {
+		sections.clear();
+		chunks.clear();
+		sectionOf.clear();
+	}
+
+	public static long sectionKey(BlockPos pos) {
+		return SectionPos.asLong(pos.getX() >> 4, pos.getY() >> 4, pos.getZ() >> 4);
+	}
+
+	private static long chunkOf(long section) {
+		return ChunkPos.asLong(SectionPos.x(section), SectionPos.z(section));
+	}
+}
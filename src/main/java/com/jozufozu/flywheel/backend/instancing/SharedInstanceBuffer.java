@@ -0,0 +1,185 @@
+package com.jozufozu.flywheel.backend.instancing;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import com.jozufozu.flywheel.backend.gl.buffer.GlBuffer;
+import com.jozufozu.flywheel.backend.gl.buffer.GlBufferType;
+import com.jozufozu.flywheel.backend.gl.buffer.GlBufferUsage;
+import com.jozufozu.flywheel.util.FreeList;
+
+/**
+ * One instance buffer shared by every instancer of a material.
+ *
+ * <p>
+ *     Each instancer gets a {@link Block} of slots and points its instance attributes, or its draw's
+ *     {@code baseInstance}, at the start of it. An instancer that outgrows its block gives it back and asks for a
+ *     bigger one. Blocks may be moved when the buffer is compacted, so instancers check where their block is
+ *     every frame.
+ * </p>
+ * <p>
+ *     Like the {@link com.jozufozu.flywheel.backend.model.ModelArena ModelArena}, growing keeps the same buffer
+ *     object, so VAOs that point at it stay valid.
+ * </p>
+ */
+public class SharedInstanceBuffer {
+
+	private static final int MIN_CAPACITY = 1024;
+
+	private final int stride;
+	private GlBuffer vbo;
+	private final FreeList free = new FreeList();
+	private final List<Block> live = new ArrayList<>();
+
+	private int capacity;
+	private int used;
+	private boolean deleted;
+
+	public SharedInstanceBuffer(int stride) {
+		this.stride = stride;
+	}
+
+	/**
+	 * The buffer is created the first time it's needed, so this must be called on the render thread.
+	 */
+	public GlBuffer getBuffer() {
+		if (vbo == null) {
+			vbo = new GlBuffer(GlBufferType.ARRAY_BUFFER, GlBufferUsage.DYNAMIC_DRAW);
+		}
+		return vbo;
+	}
+
+	/**
+	 * @return The number of instances the buffer has room for.
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * @return The number of slots handed out to instancers.
+	 */
+	public int getUsed() {
+		return used;
+	}
+
+	/**
+	 * Reserve room for the given number of instances. The contents of the block are undefined.
+	 */
+	public Block allocate(int instances) {
+		int first = free.allocate(instances);
+
+		if (first < 0) {
+			if (capacity - used < instances) {
+				grow(used + instances);
+				first = free.allocate(instances);
+			}
+
+			if (first < 0) {
+				compact();
+				first = free.allocate(instances);
+			}
+		}
+
+		Block block = new Block(first, instances);
+		live.add(block);
+		used += instances;
+		return block;
+	}
+
+	public void free(Block block) {
+		if (deleted || !live.remove(block)) return;
+
+		used -= block.capacity;
+		free.release(block.first, block.capacity);
+	}
+
+	public void delete() {
+		if (deleted) return;
+
+		deleted = true;
+		if (vbo != null) vbo.delete();
+		live.clear();
+		free.clear();
+	}
+
+	/**
+	 * Move every block to the front of the buffer.
+	 */
+	private void compact() {
+		GlBuffer vbo = getBuffer();
+		live.sort(Comparator.comparingInt(b -> b.first));
+
+		GlBuffer temp = new GlBuffer(GlBufferType.COPY_WRITE_BUFFER);
+		temp.bind();
+		temp.alloc(Math.max(used, 1) * stride);
+		temp.unbind();
+
+		int next = 0;
+		for (Block block : live) {
+			vbo.copyTo(temp, (long) block.first * stride, (long) next * stride, (long) block.capacity * stride);
+			block.first = next;
+			next += block.capacity;
+		}
+
+		if (used > 0) temp.copyTo(vbo, 0, 0, (long) used * stride);
+		temp.delete();
+
+		free.clear();
+		free.release(used, capacity - used);
+	}
+
+	private void grow(int minCapacity) {
+		GlBuffer vbo = getBuffer();
+		int newCapacity = Math.max(MIN_CAPACITY, Math.max(minCapacity, capacity * 2));
+
+		if (capacity == 0) {
+			vbo.bind();
+			vbo.alloc(newCapacity * stride);
+			vbo.unbind();
+		} else {
+			GlBuffer temp = new GlBuffer(GlBufferType.COPY_WRITE_BUFFER);
+			temp.bind();
+			temp.alloc(capacity * stride);
+			temp.unbind();
+
+			vbo.copyTo(temp, 0, 0, (long) capacity * stride);
+
+			vbo.bind();
+			vbo.alloc(newCapacity * stride);
+			vbo.unbind();
+
+			temp.copyTo(vbo, 0, 0, (long) capacity * stride);
+			temp.delete();
+		}
+
+		int oldCapacity = capacity;
+		capacity = newCapacity;
+		free.release(oldCapacity, newCapacity - oldCapacity);
+	}
+
+	/**
+	 * A range of instance slots belonging to one instancer.
+	 */
+	public static class Block {
+		private int first;
+		private final int capacity;
+
+		private Block(int first, int capacity) {
+			this.first = first;
+			this.capacity = capacity;
+		}
+
+		/**
+		 * @return The first slot of this block. Changes when the buffer is compacted.
+		 */
+		public int getFirst() {
+			return first;
+		}
+
+		public int getCapacity() {
+			return capacity;
+		}
+	}
+}
@@ -0,0 +1,191 @@
+package com.jozufozu.flywheel.backend.instancing;
+
+import org.lwjgl.opengl.GL30;
+
+/**
+ * Controls how an {@link Instancer} gets changed instances onto the GPU.
+ * <p>
+ *     Dirty slots are sorted and grouped into ranges. Two runs of dirty slots separated by no more than
+ *     {@link #getMaxGap() maxGap} bytes are merged and uploaded together, clean slots included. Runs further apart
+ *     are uploaded separately. Each range is then either mapped or uploaded with {@code glBufferSubData}.
+ * </p>
+ */
+public class UploadPolicy {
+
+	private Method method = Method.AUTO;
+	private int maxGap = 512;
+	private int subDataThreshold = 4096;
+	private int maxRanges = 32;
+	private boolean unsynchronized;
+	private int parallelThreshold;
+	private int parallelChunkSize = 512;
+	private float growthFactor = 1.5f;
+	private float shrinkOccupancy = 0.25f;
+	private int shrinkDelay = 600;
+
+	public Method getMethod() {
+		return method;
+	}
+
+	public UploadPolicy setMethod(Method method) {
+		this.method = method;
+		return this;
+	}
+
+	/**
+	 * @return The largest number of clean bytes between two dirty runs that will be uploaded to merge them.
+	 */
+	public int getMaxGap() {
+		return maxGap;
+	}
+
+	public UploadPolicy setMaxGap(int maxGap) {
+		this.maxGap = maxGap;
+		return this;
+	}
+
+	/**
+	 * @return When using {@link Method#AUTO}, ranges shorter than this many bytes are uploaded with
+	 * {@code glBufferSubData}, longer ones are mapped.
+	 */
+	public int getSubDataThreshold() {
+		return subDataThreshold;
+	}
+
+	public UploadPolicy setSubDataThreshold(int subDataThreshold) {
+		this.subDataThreshold = subDataThreshold;
+		return this;
+	}
+
+	/**
+	 * @return The most ranges uploaded in one frame. Past this everything is uploaded as a single range.
+	 */
+	public int getMaxRanges() {
+		return maxRanges;
+	}
+
+	public UploadPolicy setMaxRanges(int maxRanges) {
+		this.maxRanges = maxRanges;
+		return this;
+	}
+
+	/**
+	 * @return Whether mapped ranges skip synchronizing with the GPU.
+	 * Only safe if nothing still in flight reads from the instance buffer.
+	 */
+	public boolean isUnsynchronized() {
+		return unsynchronized;
+	}
+
+	public UploadPolicy setUnsynchronized(boolean unsynchronized) {
+		this.unsynchronized = unsynchronized;
+		return this;
+	}
+
+	/**
+	 * @return How many instances have to change in a frame before they are serialized on multiple threads.
+	 * Zero or less to always serialize on the render thread.
+	 */
+	public int getParallelThreshold() {
+		return parallelThreshold;
+	}
+
+	/**
+	 * Serialize instances on the {@link JobSystem} when many change at once. Only used by materials with
+	 * off-heap storage, and only safe if writing an instance doesn't touch shared state.
+	 */
+	public UploadPolicy setParallelThreshold(int parallelThreshold) {
+		this.parallelThreshold = parallelThreshold;
+		return this;
+	}
+
+	/**
+	 * @return The most instances serialized by a single task.
+	 */
+	public int getParallelChunkSize() {
+		return parallelChunkSize;
+	}
+
+	public UploadPolicy setParallelChunkSize(int parallelChunkSize) {
+		this.parallelChunkSize = Math.max(1, parallelChunkSize);
+		return this;
+	}
+
+	/**
+	 * @return How much bigger an instance buffer becomes each time it has to grow.
+	 */
+	public float getGrowthFactor() {
+		return growthFactor;
+	}
+
+	public UploadPolicy setGrowthFactor(float growthFactor) {
+		this.growthFactor = Math.max(1, growthFactor);
+		return this;
+	}
+
+	/**
+	 * @return The fraction of an instance buffer that has to be in use for it not to be shrunk.
+	 */
+	public float getShrinkOccupancy() {
+		return shrinkOccupancy;
+	}
+
+	public UploadPolicy setShrinkOccupancy(float shrinkOccupancy) {
+		this.shrinkOccupancy = shrinkOccupancy;
+		return this;
+	}
+
+	/**
+	 * @return How many frames in a row an instance buffer has to be below the shrink occupancy before it's shrunk.
+	 */
+	public int getShrinkDelay() {
+		return shrinkDelay;
+	}
+
+	public UploadPolicy setShrinkDelay(int shrinkDelay) {
+		this.shrinkDelay = shrinkDelay;
+		return this;
+	}
+
+	/**
+	 * @return The access flags to map a range with.
+	 */
+	public int getMapAccess() {
+		int access = GL30.GL_MAP_WRITE_BIT | GL30.GL_MAP_INVALIDATE_RANGE_BIT;
+
+		if (unsynchronized) access |= GL30.GL_MAP_UNSYNCHRONIZED_BIT;
+
+		return access;
+	}
+
+	/**
+	 * @param length The size of the range in bytes.
+	 * @param canMapRange Whether the driver supports mapping buffer ranges.
+	 * @return True if the range should be uploaded with {@code glBufferSubData}.
+	 */
+	public boolean useSubData(int length, boolean canMapRange) {
+		switch (method) {
+		case SUB_DATA:
+			return true;
+		case MAP_RANGE:
+			return false;
+		default:
+			return !canMapRange || length < subDataThreshold;
+		}
+	}
+
+	public enum Method {
+		/**
+		 * Pick per range, based on its size.
+		 */
+		AUTO,
+		/**
+		 * Always map ranges, invalidating their previous contents.
+		 */
+		MAP_RANGE,
+		/**
+		 * Always upload from client memory with {@code glBufferSubData}.
+		 */
+		SUB_DATA,
+	}
+}
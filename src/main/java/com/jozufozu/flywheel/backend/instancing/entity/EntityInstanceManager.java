@@ -28,6 +28,16 @@ public class EntityInstanceManager extends InstanceManager<Entity> {
 				.create(materialManager, obj);
 	}
 
+	@Override
+	protected boolean canMove() {
+		return true;
+	}
+
+	@Override
+	protected BlockPos getWorldPosition(Entity obj) {
+		return obj.blockPosition();
+	}
+
 	@Override
 	protected boolean canCreateInstance(Entity entity) {
 		if (!entity.isAlive()) return false;
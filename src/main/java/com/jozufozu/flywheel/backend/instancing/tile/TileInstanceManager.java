@@ -28,6 +28,11 @@ public class TileInstanceManager extends InstanceManager<TileEntity> {
 				.create(materialManager, obj);
 	}
 
+	@Override
+	protected BlockPos getWorldPosition(TileEntity obj) {
+		return obj.getBlockPos();
+	}
+
 	@Override
 	protected boolean canCreateInstance(TileEntity tile) {
 		if (tile.isRemoved()) return false;
@@ -4,14 +4,24 @@ import java.util.concurrent.ExecutionException;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
+import javax.annotation.Nullable;
+
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.jozufozu.flywheel.backend.Backend;
 import com.jozufozu.flywheel.backend.RenderWork;
+import com.jozufozu.flywheel.backend.gl.attrib.VertexFormat;
+import com.jozufozu.flywheel.backend.instancing.CullingContext;
+import com.jozufozu.flywheel.backend.instancing.IndirectBatch;
 import com.jozufozu.flywheel.backend.instancing.InstanceData;
 import com.jozufozu.flywheel.backend.instancing.Instancer;
+import com.jozufozu.flywheel.backend.instancing.SharedInstanceBuffer;
+import com.jozufozu.flywheel.core.Formats;
 import com.jozufozu.flywheel.core.PartialModel;
 import com.jozufozu.flywheel.core.model.BlockModel;
+import com.jozufozu.flywheel.core.model.CompactModel;
 import com.jozufozu.flywheel.core.model.IModel;
+import com.jozufozu.flywheel.core.model.ModelCache;
 import com.jozufozu.flywheel.util.Pair;
 import com.jozufozu.flywheel.util.RenderUtil;
 import com.mojang.blaze3d.matrix.MatrixStack;
@@ -27,9 +37,20 @@ public class InstanceMaterial<D extends InstanceData> {
 
 	protected final Cache<Object, Instancer<D>> models;
 	protected final MaterialSpec<D> spec;
+	/**
+	 * Draws all the instancers at once, if the driver supports it. Created on the first render.
+	 */
+	private IndirectBatch<D> indirect;
+	/**
+	 * Holds the instances of every instancer, if the spec asks for it.
+	 */
+	private final SharedInstanceBuffer shared;
 
 	public InstanceMaterial(MaterialSpec<D> spec) {
 		this.spec = spec;
+		// sharing pays off when the whole material is drawn at once, otherwise instancers do better with their own buffers
+		boolean share = spec.usesSharedInstanceBuffer() && Backend.getInstance().compat.multiDrawIndirectSupported();
+		this.shared = share ? new SharedInstanceBuffer(spec.getInstanceFormat().getStride()) : null;
 
 		this.models = CacheBuilder.newBuilder()
 				.removalListener(notification -> {
@@ -48,26 +69,88 @@ public class InstanceMaterial<D extends InstanceData> {
 	 */
 	public Instancer<D> model(Object key, Supplier<IModel> modelSupplier) {
 		try {
-			return models.get(key, () -> new Instancer<>(modelSupplier, spec));
+			return models.get(key, () -> new Instancer<>(adapt(modelSupplier), spec, shared));
 		} catch (ExecutionException e) {
 			throw new RuntimeException("error creating instancer", e);
 		}
 	}
 
 	public Instancer<D> getModel(PartialModel partial, BlockState referenceState) {
-		return model(partial, () -> new BlockModel(spec.getModelFormat(), partial.get(), referenceState));
+		return model(partial, cached("partial/" + partial.getLocation() + "/" + referenceState, () -> new BlockModel(blockModelFormat(), partial.get(), referenceState)));
 	}
 
 	public Instancer<D> getModel(PartialModel partial, BlockState referenceState, Direction dir) {
-		return getModel(partial, referenceState, dir, RenderUtil.rotateToFace(dir));
+		Supplier<MatrixStack> modelTransform = RenderUtil.rotateToFace(dir);
+		return model(Pair.of(dir, partial), cached("partial/" + partial.getLocation() + "/" + referenceState + "/" + dir, () -> new BlockModel(blockModelFormat(), partial.get(), referenceState, modelTransform.get())));
 	}
 
 	public Instancer<D> getModel(PartialModel partial, BlockState referenceState, Direction dir, Supplier<MatrixStack> modelTransform) {
-		return model(Pair.of(dir, partial), () -> new BlockModel(spec.getModelFormat(), partial.get(), referenceState, modelTransform.get()));
+		return model(Pair.of(dir, partial), () -> new BlockModel(blockModelFormat(), partial.get(), referenceState, modelTransform.get()));
 	}
 
 	public Instancer<D> getModel(BlockState toRender) {
-		return model(toRender, () -> new BlockModel(spec.getModelFormat(), toRender));
+		return model(toRender, cached("block/" + toRender, () -> new BlockModel(blockModelFormat(), toRender)));
+	}
+
+	private Supplier<IModel> cached(String key, Supplier<IModel> modelSupplier) {
+		return ModelCache.cached(key, spec.getModelFormat(), adapt(modelSupplier));
+	}
+
+	/**
+	 * @return The format to build block models in: the material's own, unless {@link #adapt} is going to compact them.
+	 */
+	private VertexFormat blockModelFormat() {
+		VertexFormat format = spec.getModelFormat();
+		return format == Formats.COMPACT_MODEL ? Formats.UNLIT_MODEL : format;
+	}
+
+	/**
+	 * Models are usually made in the unlit model format, convert them if this material wants them compact.
+	 */
+	private Supplier<IModel> adapt(Supplier<IModel> modelSupplier) {
+		if (spec.getModelFormat() != Formats.COMPACT_MODEL) return modelSupplier;
+
+		return () -> CompactModel.of(modelSupplier.get());
+	}
+
+	/**
+	 * Draw every instancer. With multi-draw indirect support this is a single draw call for the whole material,
+	 * otherwise each instancer draws itself.
+	 *
+	 * @param culling Used to skip instances that can't be seen, or null to draw everything.
+	 */
+	public void render(@Nullable CullingContext culling) {
+		if (indirect == null && Backend.getInstance().compat.multiDrawIndirectSupported()) {
+			indirect = new IndirectBatch<>(spec.getModelFormat(), spec.getInstanceFormat(), shared);
+		}
+
+		if (indirect != null) {
+			indirect.render(models.asMap().values(), culling);
+		} else {
+			forEachInstancer(instancer -> instancer.render(culling));
+		}
+	}
+
+	/**
+	 * @return The bytes of GPU memory set aside for the instances of every instancer.
+	 */
+	public long getAllocatedBytes() {
+		long bytes = 0;
+		for (Instancer<D> instancer : models.asMap().values()) {
+			bytes += instancer.getAllocatedBytes();
+		}
+		return bytes;
+	}
+
+	/**
+	 * @return The bytes of GPU memory taken up by live instances.
+	 */
+	public long getUsedBytes() {
+		long bytes = 0;
+		for (Instancer<D> instancer : models.asMap().values()) {
+			bytes += instancer.getUsedBytes();
+		}
+		return bytes;
 	}
 
 	public boolean nothingToRender() {
@@ -79,6 +162,17 @@ public class InstanceMaterial<D extends InstanceData> {
 
 	public void delete() {
 		models.invalidateAll();
+
+		if (indirect != null) {
+			IndirectBatch<D> batch = indirect;
+			RenderWork.enqueue(batch::delete);
+			indirect = null;
+		}
+
+		if (shared != null) {
+			// queued after the instancers, so they can still give their blocks back
+			RenderWork.enqueue(shared::delete);
+		}
 	}
 
 	/**
@@ -4,6 +4,9 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
 
+import javax.annotation.Nullable;
+
+import com.jozufozu.flywheel.backend.instancing.CullingContext;
 import com.jozufozu.flywheel.backend.instancing.InstanceData;
 import com.jozufozu.flywheel.backend.state.IRenderState;
 import com.jozufozu.flywheel.core.shader.WorldProgram;
@@ -42,8 +45,15 @@ public class MaterialGroup<P extends WorldProgram> {
 	}
 
 	public void render(Matrix4f viewProjection, double camX, double camY, double camZ) {
+		render(viewProjection, camX, camY, camZ, null);
+	}
+
+	/**
+	 * @param culling Used to skip instances that can't be seen, or null to draw everything.
+	 */
+	public void render(Matrix4f viewProjection, double camX, double camY, double camZ, @Nullable CullingContext culling) {
 		for (MaterialRenderer<P> renderer : renderers) {
-			renderer.render(viewProjection, camX, camY, camZ);
+			renderer.render(viewProjection, camX, camY, camZ, culling);
 		}
 	}
 
@@ -51,6 +61,11 @@ public class MaterialGroup<P extends WorldProgram> {
 
 	}
 
+	private void setupProgram(P program) {
+		program.uploadOriginOffset(owner.getOriginOffset());
+		setup(program);
+	}
+
 	public void clear() {
 		materials.values().forEach(InstanceMaterial::clear);
 	}
@@ -66,7 +81,7 @@ public class MaterialGroup<P extends WorldProgram> {
 	private InstanceMaterial<?> createInstanceMaterial(MaterialSpec<?> type) {
 		InstanceMaterial<?> material = new InstanceMaterial<>(type);
 
-		this.renderers.add(new MaterialRenderer<>(owner.getProgram(type.getProgramName()), material, this::setup));
+		this.renderers.add(new MaterialRenderer<>(owner.getProgram(type.getProgramName()), material, this::setupProgram));
 
 		return material;
 	}
@@ -5,6 +5,11 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.function.Supplier;
 
+import javax.annotation.Nullable;
+
+import org.lwjgl.opengl.GL11;
+
+import com.jozufozu.flywheel.backend.instancing.CullingContext;
 import com.jozufozu.flywheel.backend.instancing.InstanceData;
 import com.jozufozu.flywheel.backend.state.IRenderState;
 import com.jozufozu.flywheel.backend.state.RenderLayer;
@@ -13,11 +18,13 @@ import com.jozufozu.flywheel.core.Materials;
 import com.jozufozu.flywheel.core.WorldContext;
 import com.jozufozu.flywheel.core.materials.ModelData;
 import com.jozufozu.flywheel.core.materials.OrientedData;
+import com.jozufozu.flywheel.core.shader.GlFog;
 import com.jozufozu.flywheel.core.shader.WorldProgram;
 import com.jozufozu.flywheel.util.WeakHashSet;
 
 import net.minecraft.client.renderer.ActiveRenderInfo;
 import net.minecraft.client.renderer.RenderType;
+import net.minecraft.client.renderer.culling.ClippingHelper;
 import net.minecraft.inventory.container.PlayerContainer;
 import net.minecraft.util.ResourceLocation;
 import net.minecraft.util.math.BlockPos;
@@ -28,8 +35,14 @@ import net.minecraft.util.math.vector.Vector3i;
 public class MaterialManager<P extends WorldProgram> {
 
 	public static int MAX_ORIGIN_DISTANCE = 100;
+	/**
+	 * How far the camera can get from the origin coordinate before instances are recreated around it.
+	 * Floats still have sub-millimeter precision this far out.
+	 */
+	public static int MAX_ANCHOR_DISTANCE = 2048;
 
 	protected BlockPos originCoordinate = BlockPos.ZERO;
+	protected BlockPos renderOrigin = BlockPos.ZERO;
 
 	protected final WorldContext<P> context;
 	protected final GroupFactory<P> groupFactory;
@@ -39,6 +52,9 @@ public class MaterialManager<P extends WorldProgram> {
 
 	private final WeakHashSet<OriginShiftListener> listeners;
 
+	private final CullingContext culling = new CullingContext();
+	private ClippingHelper clippingHelper;
+
 	public MaterialManager(WorldContext<P> context) {
 		this(context, MaterialGroup::new, false);
 	}
@@ -101,16 +117,23 @@ public class MaterialManager<P extends WorldProgram> {
 	 * @param viewProjection How do we get from camera space to clip space?
 	 */
 	public void render(RenderLayer layer, Matrix4f viewProjection, double camX, double camY, double camZ) {
-		if (!ignoreOriginCoordinate) {
-			camX -= originCoordinate.getX();
-			camY -= originCoordinate.getY();
-			camZ -= originCoordinate.getZ();
-
-			Matrix4f translate = Matrix4f.createTranslateMatrix((float) -camX, (float) -camY, (float) -camZ);
+		CullingContext culling = null;
+		if (!ignoreOriginCoordinate && clippingHelper != null) {
+			// instance bounds are relative to the origin coordinate, so cull in that space
+			double cullX = camX - originCoordinate.getX();
+			double cullY = camY - originCoordinate.getY();
+			double cullZ = camZ - originCoordinate.getZ();
+
+			culling = this.culling;
+			culling.prepare(clippingHelper, originCoordinate, translate(viewProjection, cullX, cullY, cullZ), cullX, cullY, cullZ, getCullDistance());
+		}
 
-			translate.multiplyBackward(viewProjection);
+		if (!ignoreOriginCoordinate) {
+			camX -= renderOrigin.getX();
+			camY -= renderOrigin.getY();
+			camZ -= renderOrigin.getZ();
 
-			viewProjection = translate;
+			viewProjection = translate(viewProjection, camX, camY, camZ);
 		}
 
 		for (Map.Entry<IRenderState, MaterialGroup<P>> entry : layers.get(layer).entrySet()) {
@@ -118,11 +141,37 @@ public class MaterialManager<P extends WorldProgram> {
 			MaterialGroup<P> group = entry.getValue();
 
 			state.bind();
-			group.render(viewProjection, camX, camY, camZ);
+			group.render(viewProjection, camX, camY, camZ, culling);
 			state.unbind();
 		}
 	}
 
+	private static Matrix4f translate(Matrix4f viewProjection, double camX, double camY, double camZ) {
+		Matrix4f translate = Matrix4f.createTranslateMatrix((float) -camX, (float) -camY, (float) -camZ);
+
+		translate.multiplyBackward(viewProjection);
+
+		return translate;
+	}
+
+	/**
+	 * Set the frustum to cull instances against for the coming frame.
+	 * Null disables culling. Ignored if this manager doesn't use an origin coordinate.
+	 */
+	public void setClippingHelper(@Nullable ClippingHelper clippingHelper) {
+		this.clippingHelper = clippingHelper;
+	}
+
+	/**
+	 * Past linear fog's end everything is fully fogged, so there's no need to draw it.
+	 */
+	private static float getCullDistance() {
+		if (GlFog.fogEnabled() && GlFog.getFogModeGlEnum() == GL11.GL_LINEAR) {
+			return GlFog.getFogEnd();
+		}
+		return Float.POSITIVE_INFINITY;
+	}
+
 	public void delete() {
 		for (Map<IRenderState, MaterialGroup<P>> groups : layers.values()) {
 
@@ -154,31 +203,56 @@ public class MaterialManager<P extends WorldProgram> {
 		return context.getProgramSupplier(name);
 	}
 
+	/**
+	 * Instance positions are relative to this.
+	 */
 	public Vector3i getOriginCoordinate() {
 		return originCoordinate;
 	}
 
+	/**
+	 * The camera and view projection matrix are relative to this. It follows the camera closely.
+	 */
+	public Vector3i getRenderOrigin() {
+		return renderOrigin;
+	}
+
+	/**
+	 * @return What to add to a position relative to the origin coordinate to make it relative to the render origin.
+	 */
+	public Vector3i getOriginOffset() {
+		if (ignoreOriginCoordinate) return Vector3i.ZERO;
+
+		return originCoordinate.subtract(renderOrigin);
+	}
+
 	public void addListener(OriginShiftListener listener) {
 		listeners.add(listener);
 	}
 
 	/**
-	 * Maintain the integer origin coordinate to be within a certain distance from the camera in all directions.
+	 * Maintain the integer origin coordinates to be within a certain distance from the camera in all directions.
 	 *
 	 * This prevents floating point precision issues at high coordinates.
+	 * <p>
+	 *     The render origin is kept within {@link #MAX_ORIGIN_DISTANCE} of the camera. Moving it only changes a
+	 *     uniform, so instance data is left untouched. Only once the camera is more than {@link #MAX_ANCHOR_DISTANCE}
+	 *     away from the origin coordinate is that moved too, and all instances recreated relative to it.
+	 * </p>
 	 */
 	public void checkAndShiftOrigin(ActiveRenderInfo info) {
 		int cX = MathHelper.floor(info.getPosition().x);
 		int cY = MathHelper.floor(info.getPosition().y);
 		int cZ = MathHelper.floor(info.getPosition().z);
 
-		int dX = cX - originCoordinate.getX();
-		int dY = cY - originCoordinate.getY();
-		int dZ = cZ - originCoordinate.getZ();
+		if (isFar(renderOrigin, cX, cY, cZ, MAX_ORIGIN_DISTANCE)) {
+			renderOrigin = new BlockPos(cX, cY, cZ);
+		}
 
-		if (Math.abs(dX) > MAX_ORIGIN_DISTANCE || Math.abs(dY) > MAX_ORIGIN_DISTANCE || Math.abs(dZ) > MAX_ORIGIN_DISTANCE) {
+		if (isFar(originCoordinate, cX, cY, cZ, MAX_ANCHOR_DISTANCE)) {
 
 			originCoordinate = new BlockPos(cX, cY, cZ);
+			renderOrigin = originCoordinate;
 
 			for (Map<IRenderState, MaterialGroup<P>> groups : layers.values()) {
 				groups.values().forEach(MaterialGroup::clear);
@@ -188,6 +262,10 @@ public class MaterialManager<P extends WorldProgram> {
 		}
 	}
 
+	private static boolean isFar(Vector3i origin, int x, int y, int z, int distance) {
+		return Math.abs(x - origin.getX()) > distance || Math.abs(y - origin.getY()) > distance || Math.abs(z - origin.getZ()) > distance;
+	}
+
 	private MaterialGroup<P> createGroup(IRenderState state) {
 		return groupFactory.create(this, state);
 	}
@@ -3,7 +3,9 @@ package com.jozufozu.flywheel.backend.material;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
-import com.jozufozu.flywheel.backend.instancing.Instancer;
+import javax.annotation.Nullable;
+
+import com.jozufozu.flywheel.backend.instancing.CullingContext;
 import com.jozufozu.flywheel.core.shader.WorldProgram;
 
 import net.minecraft.util.math.vector.Matrix4f;
@@ -22,6 +24,10 @@ public class MaterialRenderer<P extends WorldProgram> {
 	}
 
 	public void render(Matrix4f viewProjection, double camX, double camY, double camZ) {
+		render(viewProjection, camX, camY, camZ, null);
+	}
+
+	public void render(Matrix4f viewProjection, double camX, double camY, double camZ, @Nullable CullingContext culling) {
 		if (material.nothingToRender()) return;
 
 		P program = this.program.get();
@@ -32,7 +38,7 @@ public class MaterialRenderer<P extends WorldProgram> {
 
 		setupFunc.accept(program);
 
-		material.forEachInstancer(Instancer::render);
+		material.render(culling);
 	}
 
 }
@@ -1,8 +1,13 @@
 package com.jozufozu.flywheel.backend.material;
 
+import javax.annotation.Nullable;
+
 import com.jozufozu.flywheel.backend.gl.attrib.VertexFormat;
+import com.jozufozu.flywheel.backend.instancing.IInstanceBounds;
 import com.jozufozu.flywheel.backend.instancing.IInstanceFactory;
+import com.jozufozu.flywheel.backend.instancing.IInstanceWriter;
 import com.jozufozu.flywheel.backend.instancing.InstanceData;
+import com.jozufozu.flywheel.backend.instancing.UploadPolicy;
 
 import net.minecraft.util.ResourceLocation;
 
@@ -15,6 +20,14 @@ public class MaterialSpec<D extends InstanceData> {
 	private final VertexFormat instanceFormat;
 	private final IInstanceFactory<D> instanceFactory;
 
+	private IInstanceWriter<D> writer;
+	private IInstanceBounds<D> bounds;
+	private boolean sharedInstanceBuffer;
+	private boolean offHeapStorage;
+	private boolean swapRemove;
+	private boolean asyncBaking;
+	private UploadPolicy uploadPolicy = new UploadPolicy();
+
 	public MaterialSpec(ResourceLocation name, ResourceLocation programSpec, VertexFormat modelFormat, VertexFormat instanceFormat, IInstanceFactory<D> instanceFactory) {
 		this.name = name;
 		this.programSpec = programSpec;
@@ -23,6 +36,23 @@ public class MaterialSpec<D extends InstanceData> {
 		this.instanceFactory = instanceFactory;
 	}
 
+	/**
+	 * Turn on what the built-in materials use: {@link #setOffHeapStorage off-heap storage},
+	 * {@link #setSwapRemove swap removal}, a {@link #setSharedInstanceBuffer shared instance buffer},
+	 * {@link #setAsyncBaking async baking}, and parallel uploads once 2048 instances change at once. Only safe with a
+	 * {@link #setWriter writer} that touches nothing but its instance, and with models that can be baked off the
+	 * render thread.
+	 *
+	 * @return This spec.
+	 */
+	public MaterialSpec<D> defaults() {
+		return setOffHeapStorage(true)
+				.setSwapRemove(true)
+				.setSharedInstanceBuffer(true)
+				.setAsyncBaking(true)
+				.setUploadPolicy(new UploadPolicy().setParallelThreshold(2048));
+	}
+
 	public ResourceLocation getProgramName() {
 		return programSpec;
 	}
@@ -39,4 +69,120 @@ public class MaterialSpec<D extends InstanceData> {
 		return instanceFactory;
 	}
 
+	/**
+	 * Write instances of this material straight to memory instead of through {@link InstanceData#write}.
+	 * The writer has to handle every class the instance factory can create.
+	 *
+	 * @return This spec.
+	 */
+	public MaterialSpec<D> setWriter(IInstanceWriter<D> writer) {
+		this.writer = writer;
+		return this;
+	}
+
+	/**
+	 * @return The writer for this material, or null if instances write themselves.
+	 */
+	@Nullable
+	public IInstanceWriter<D> getWriter() {
+		return writer;
+	}
+
+	/**
+	 * Keep the instances of every instancer of this material in one buffer, each instancer getting a block of it.
+	 * Only has an effect with {@link #setOffHeapStorage off-heap storage} when multi-draw indirect is supported,
+	 * and takes the place of persistent mapping.
+	 *
+	 * @return This spec.
+	 */
+	public MaterialSpec<D> setSharedInstanceBuffer(boolean sharedInstanceBuffer) {
+		this.sharedInstanceBuffer = sharedInstanceBuffer;
+		return this;
+	}
+
+	public boolean usesSharedInstanceBuffer() {
+		return sharedInstanceBuffer && offHeapStorage;
+	}
+
+	/**
+	 * Let instances of this material be culled. Without bounds, every instance is always drawn.
+	 *
+	 * @return This spec.
+	 */
+	public MaterialSpec<D> setBounds(IInstanceBounds<D> bounds) {
+		this.bounds = bounds;
+		return this;
+	}
+
+	@Nullable
+	public IInstanceBounds<D> getBounds() {
+		return bounds;
+	}
+
+	/**
+	 * Keep a serialized copy of every instance in an off-heap {@link com.jozufozu.flywheel.backend.instancing.InstanceArena InstanceArena}.
+	 * <p>
+	 *     Uploads become plain memory copies and growing or compacting the instance buffer no longer re-serializes
+	 *     every instance, at the cost of {@code stride} bytes of client memory per instance.
+	 * </p>
+	 *
+	 * @return This spec.
+	 */
+	public MaterialSpec<D> setOffHeapStorage(boolean offHeapStorage) {
+		this.offHeapStorage = offHeapStorage;
+		return this;
+	}
+
+	public boolean usesOffHeapStorage() {
+		return offHeapStorage;
+	}
+
+	/**
+	 * Remove instances by moving the last instance into their slot, instead of shifting every following instance down.
+	 * <p>
+	 *     Removing an instance then costs a single re-upload no matter where it was, and the buffer never has holes
+	 *     to compact. Instances will not stay in creation order.
+	 * </p>
+	 *
+	 * @return This spec.
+	 */
+	public MaterialSpec<D> setSwapRemove(boolean swapRemove) {
+		this.swapRemove = swapRemove;
+		return this;
+	}
+
+	public boolean usesSwapRemove() {
+		return swapRemove;
+	}
+
+	/**
+	 * Bake the models of this material on a worker thread. An instancer draws nothing until its model is ready.
+	 * Only safe if every model supplier used with this material can run off the render thread, which
+	 * {@link com.jozufozu.flywheel.core.model.BlockModel BlockModel}s can. Off by default.
+	 *
+	 * @return This spec.
+	 */
+	public MaterialSpec<D> setAsyncBaking(boolean asyncBaking) {
+		this.asyncBaking = asyncBaking;
+		return this;
+	}
+
+	public boolean usesAsyncBaking() {
+		return asyncBaking;
+	}
+
+	/**
+	 * Change how instances of this material are uploaded. The policy is read every frame, so it can be tuned live.
+	 *
+	 * @return This spec.
+	 */
+	public MaterialSpec<D> setUploadPolicy(UploadPolicy uploadPolicy) {
+		this.uploadPolicy = uploadPolicy;
+		return this;
+	}
+
+	public UploadPolicy getUploadPolicy() {
+		return uploadPolicy;
+	}
+
 }
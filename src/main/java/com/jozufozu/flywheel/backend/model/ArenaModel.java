@@ -0,0 +1,90 @@
+package com.jozufozu.flywheel.backend.model;
+
+import com.jozufozu.flywheel.backend.Backend;
+import com.jozufozu.flywheel.backend.gl.GlPrimitive;
+import com.jozufozu.flywheel.backend.gl.attrib.VertexFormat;
+import com.jozufozu.flywheel.core.model.IModel;
+import com.jozufozu.flywheel.util.AttribUtil;
+
+/**
+ * An indexed triangle model whose vertices live in a {@link ModelArena}, shared with every other model of its format.
+ * Just an offset and a count, drawn with a base vertex.
+ */
+public class ArenaModel implements IBufferedModel {
+
+	protected final ModelArena arena;
+	protected final ModelArena.Allocation allocation;
+	protected final ElementBuffer ebo;
+	protected boolean deleted;
+
+	public ArenaModel(ModelArena arena, IModel model) {
+		this.arena = arena;
+		this.allocation = arena.allocate(model);
+		this.ebo = model.createEBO();
+	}
+
+	public ModelArena getArena() {
+		return arena;
+	}
+
+	public ElementBuffer getElementBuffer() {
+		return ebo;
+	}
+
+	/**
+	 * @return The index of this model's first vertex in the arena. May change when the arena is defragmented.
+	 */
+	public int getBaseVertex() {
+		return allocation.getFirst();
+	}
+
+	@Override
+	public VertexFormat getFormat() {
+		return arena.getFormat();
+	}
+
+	@Override
+	public int getVertexCount() {
+		return allocation.getCount();
+	}
+
+	@Override
+	public boolean valid() {
+		return getVertexCount() > 0 && !deleted;
+	}
+
+	@Override
+	public void setupState() {
+		arena.getBuffer().bind();
+		AttribUtil.enableArrays(getAttributeCount());
+		getFormat().vertexAttribPointers(0);
+		ebo.bind();
+	}
+
+	@Override
+	public void clearState() {
+		AttribUtil.disableArrays(getAttributeCount());
+		arena.getBuffer().unbind();
+		ebo.unbind();
+	}
+
+	@Override
+	public void drawCall() {
+		Backend.getInstance().compat.drawBaseVertex.drawElementsBaseVertex(GlPrimitive.TRIANGLES, ebo.elementCount, ebo.eboIndexType, 0, getBaseVertex());
+	}
+
+	@Override
+	public void drawInstances(int instanceCount) {
+		if (!valid()) return;
+
+		Backend.getInstance().compat.drawBaseVertex.drawElementsInstancedBaseVertex(GlPrimitive.TRIANGLES, ebo.elementCount, ebo.eboIndexType, 0, instanceCount, getBaseVertex());
+	}
+
+	@Override
+	public void delete() {
+		if (deleted) return;
+
+		deleted = true;
+		arena.free(allocation);
+	}
+}
@@ -14,9 +14,13 @@ public class ArrayModelRenderer extends ModelRenderer {
 		super(model);
 	}
 
+	public ArrayModelRenderer(Supplier<IModel> model, boolean bakeAsync) {
+		super(model, bakeAsync);
+	}
+
 	@Override
 	public void draw() {
-		if (!initialized) init();
+		if (!initialized && pending.isReady()) init();
 		if (!isValid()) return;
 
 		vao.bind();
@@ -29,11 +33,15 @@ public class ArrayModelRenderer extends ModelRenderer {
 	@Override
 	protected void init() {
 		initialized = true;
-		IModel model = modelSupplier.get();
+		IModel model = pending.get();
 
-		if (model.empty()) return;
+		if (model.empty()) {
+			PendingModel.release(model);
+			return;
+		}
 
-		this.model = new IndexedModel(model);
+		this.model = ModelArena.upload(model);
+		PendingModel.release(model);
 
 		vao = new GlVertexArray();
 
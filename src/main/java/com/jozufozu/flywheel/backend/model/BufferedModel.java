@@ -10,6 +10,7 @@ import com.jozufozu.flywheel.backend.gl.attrib.VertexFormat;
 import com.jozufozu.flywheel.backend.gl.buffer.GlBuffer;
 import com.jozufozu.flywheel.backend.gl.buffer.GlBufferType;
 import com.jozufozu.flywheel.backend.gl.buffer.MappedBuffer;
+import com.jozufozu.flywheel.backend.gl.buffer.VecBufferWriter;
 import com.jozufozu.flywheel.core.model.IModel;
 import com.jozufozu.flywheel.util.AttribUtil;
 
@@ -32,12 +33,17 @@ public class BufferedModel implements IBufferedModel {
 
 		// mirror it in system memory so we can write to it, and upload our model.
 		MappedBuffer buffer = vbo.getBuffer(0, model.size());
-		model.buffer(buffer);
+		buffer.position(0);
+		model.buffer(VecBufferWriter.of(buffer.unwrap()));
 		buffer.flush();
 
 		vbo.unbind();
 	}
 
+	public GlBuffer getVertexBuffer() {
+		return vbo;
+	}
+
 	public VertexFormat getFormat() {
 		return model.format();
 	}
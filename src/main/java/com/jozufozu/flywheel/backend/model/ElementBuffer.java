@@ -8,11 +8,20 @@ public class ElementBuffer {
 	private final GlBuffer buffer;
 	public final int elementCount;
 	public final GlNumericType eboIndexType;
+	/**
+	 * True if this indexes consecutive quads as triangles, in which case any prefix of it indexes fewer quads.
+	 */
+	public final boolean quads;
 
 	public ElementBuffer(GlBuffer backing, int elementCount, GlNumericType indexType) {
+		this(backing, elementCount, indexType, false);
+	}
+
+	public ElementBuffer(GlBuffer backing, int elementCount, GlNumericType indexType, boolean quads) {
 		this.buffer = backing;
 		this.eboIndexType = indexType;
 		this.elementCount = elementCount;
+		this.quads = quads;
 	}
 
 	public void bind() {
@@ -25,6 +25,10 @@ public class IndexedModel extends BufferedModel {
 		this.ebo = model.createEBO();
 	}
 
+	public ElementBuffer getElementBuffer() {
+		return ebo;
+	}
+
 	@Override
 	public void setupState() {
 		super.setupState();
@@ -0,0 +1,356 @@
+package com.jozufozu.flywheel.backend.model;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.lwjgl.system.MemoryUtil;
+
+import com.jozufozu.flywheel.backend.Backend;
+import com.jozufozu.flywheel.backend.gl.attrib.VertexFormat;
+import com.jozufozu.flywheel.backend.gl.buffer.GlBuffer;
+import com.jozufozu.flywheel.backend.gl.buffer.GlBufferType;
+import com.jozufozu.flywheel.backend.gl.buffer.VecBufferWriter;
+import com.jozufozu.flywheel.core.model.IModel;
+import com.jozufozu.flywheel.event.ReloadRenderersEvent;
+import com.jozufozu.flywheel.util.FreeList;
+
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.eventbus.api.EventPriority;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+/**
+ * One vertex buffer holding every model of a vertex format.
+ *
+ * <p>
+ *     Models are sub-allocated from a free list, in units of vertices, and drawn with a base vertex. Freed space is
+ *     merged with its neighbours. When an allocation doesn't fit anywhere but there is enough free space in total,
+ *     every live model is moved to the front of the buffer. When there isn't enough space, the buffer grows.
+ * </p>
+ * <p>
+ *     The GL buffer object never changes, only its storage, so VAOs that point at it stay valid.
+ * </p>
+ * <p>
+ *     Models are deduplicated by content. Before uploading, the vertex data is hashed, and if a live model has the
+ *     same vertices its allocation is shared and reference counted instead, no matter what key the model was
+ *     requested under or which material requested it.
+ * </p>
+ */
+@Mod.EventBusSubscriber(Dist.CLIENT)
+public class ModelArena {
+
+	private static final int MIN_CAPACITY = 4096;
+
+	private static final Map<VertexFormat, ModelArena> ARENAS = new HashMap<>();
+
+	/**
+	 * Upload a model, into the arena for its format if base vertex draws are supported,
+	 * or into its own buffer otherwise.
+	 */
+	public static IBufferedModel upload(IModel model) {
+		if (Backend.getInstance().compat.drawBaseVertexSupported()) {
+			return new ArenaModel(get(model.format()), model);
+		}
+
+		return new IndexedModel(model);
+	}
+
+	public static ModelArena get(VertexFormat format) {
+		return ARENAS.computeIfAbsent(format, ModelArena::new);
+	}
+
+	/**
+	 * @return How many bytes of vertex data every arena together didn't have to upload thanks to deduplication.
+	 */
+	public static long getTotalDeduplicatedBytes() {
+		long total = 0;
+		for (ModelArena arena : ARENAS.values()) {
+			total += arena.getDeduplicatedBytes();
+		}
+		return total;
+	}
+
+	// make sure this gets reset first, like the QuadConverter
+	@SubscribeEvent(priority = EventPriority.HIGHEST)
+	public static void onRendererReload(ReloadRenderersEvent event) {
+		ARENAS.values()
+				.forEach(ModelArena::delete);
+		ARENAS.clear();
+	}
+
+	private final VertexFormat format;
+	private final int stride;
+	private final GlBuffer vbo;
+
+	private final FreeList free = new FreeList();
+	private final List<Allocation> live = new ArrayList<>();
+	private final Map<ContentKey, Allocation> byContent = new HashMap<>();
+
+	private int capacity;
+	private int used;
+	private long deduplicatedBytes;
+	private boolean deleted;
+
+	public ModelArena(VertexFormat format) {
+		this.format = format;
+		this.stride = format.getStride();
+		this.vbo = new GlBuffer(GlBufferType.ARRAY_BUFFER);
+	}
+
+	public VertexFormat getFormat() {
+		return format;
+	}
+
+	public GlBuffer getBuffer() {
+		return vbo;
+	}
+
+	/**
+	 * @return The number of vertices the buffer has room for.
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * @return The number of vertices taken up by live models.
+	 */
+	public int getUsed() {
+		return used;
+	}
+
+	/**
+	 * @return How many bytes are shared between models with identical vertices instead of being uploaded again.
+	 */
+	public long getDeduplicatedBytes() {
+		return deduplicatedBytes;
+	}
+
+	/**
+	 * Find room for a model and upload it, or share the allocation of a live model with the same vertices.
+	 * Every call has to be matched by a call to {@link #free}.
+	 */
+	public Allocation allocate(IModel model) {
+		int count = model.vertexCount();
+
+		if (count <= 0) return new Allocation(count, null);
+
+		int size = count * stride;
+		ByteBuffer scratch = MemoryUtil.memAlloc(size);
+		try {
+			model.buffer(VecBufferWriter.of(scratch));
+			long address = MemoryUtil.memAddress(scratch);
+
+			ContentKey key = ContentKey.of(address, size, count);
+			Allocation existing = byContent.get(key);
+
+			if (existing != null) {
+				existing.refCount++;
+				deduplicatedBytes += size;
+				return existing;
+			}
+
+			Allocation allocation = new Allocation(count, key);
+			allocate(allocation);
+			byContent.put(key, allocation);
+
+			vbo.bind();
+			vbo.subData((long) allocation.first * stride, address, size);
+			vbo.unbind();
+
+			return allocation;
+		} finally {
+			MemoryUtil.memFree(scratch);
+		}
+	}
+
+	private void allocate(Allocation allocation) {
+		int count = allocation.count;
+		int first = free.allocate(count);
+
+		if (first < 0) {
+			if (capacity - used < count) {
+				grow(used + count);
+				first = free.allocate(count);
+			}
+
+			if (first < 0) {
+				defragment();
+				first = free.allocate(count);
+			}
+		}
+
+		allocation.first = first;
+		live.add(allocation);
+		used += count;
+	}
+
+	/**
+	 * Give the space used by an allocation back to the arena, once nothing else shares it.
+	 */
+	public void free(Allocation allocation) {
+		if (deleted || allocation.count <= 0 || allocation.refCount <= 0) return;
+
+		if (--allocation.refCount > 0) {
+			deduplicatedBytes -= (long) allocation.count * stride;
+			return;
+		}
+
+		if (!live.remove(allocation)) return;
+
+		byContent.remove(allocation.key);
+
+		used -= allocation.count;
+		free.release(allocation.first, allocation.count);
+	}
+
+	/**
+	 * Move every live model to the front of the buffer, leaving all the free space in one block at the end.
+	 */
+	public void defragment() {
+		if (used == 0) {
+			free.clear();
+			free.release(0, capacity);
+			return;
+		}
+
+		live.sort(Comparator.comparingInt(a -> a.first));
+
+		GlBuffer temp = new GlBuffer(GlBufferType.COPY_WRITE_BUFFER);
+		temp.bind();
+		temp.alloc(used * stride);
+		temp.unbind();
+
+		int next = 0;
+		for (Allocation allocation : live) {
+			vbo.copyTo(temp, (long) allocation.first * stride, (long) next * stride, (long) allocation.count * stride);
+			allocation.first = next;
+			next += allocation.count;
+		}
+
+		temp.copyTo(vbo, 0, 0, (long) used * stride);
+		temp.delete();
+
+		free.clear();
+		free.release(used, capacity - used);
+	}
+
+	public void delete() {
+		if (deleted) return;
+
+		deleted = true;
+		vbo.delete();
+		live.clear();
+		byContent.clear();
+		free.clear();
+		deduplicatedBytes = 0;
+	}
+
+	/**
+	 * Grow the storage, keeping the contents and the buffer object.
+	 */
+	private void grow(int minCapacity) {
+		int newCapacity = Math.max(MIN_CAPACITY, Math.max(minCapacity, capacity * 2));
+
+		if (capacity == 0) {
+			vbo.bind();
+			vbo.alloc(newCapacity * stride);
+			vbo.unbind();
+		} else {
+			GlBuffer temp = new GlBuffer(GlBufferType.COPY_WRITE_BUFFER);
+			temp.bind();
+			temp.alloc(capacity * stride);
+			temp.unbind();
+
+			vbo.copyTo(temp, 0, 0, (long) capacity * stride);
+
+			vbo.bind();
+			vbo.alloc(newCapacity * stride);
+			vbo.unbind();
+
+			temp.copyTo(vbo, 0, 0, (long) capacity * stride);
+			temp.delete();
+		}
+
+		int oldCapacity = capacity;
+		capacity = newCapacity;
+		free.release(oldCapacity, newCapacity - oldCapacity);
+	}
+
+	/**
+	 * A range of vertices in the arena. The range may move when the arena is defragmented,
+	 * so read {@link #getFirst()} every time it's drawn.
+	 */
+	public static class Allocation {
+		private final int count;
+		private final ContentKey key;
+		private int first;
+		private int refCount = 1;
+
+		private Allocation(int count, ContentKey key) {
+			this.count = count;
+			this.key = key;
+		}
+
+		public int getFirst() {
+			return first;
+		}
+
+		public int getCount() {
+			return count;
+		}
+	}
+
+	/**
+	 * Two independent 64 bit hashes of a model's vertex data. Equal keys are taken to mean equal vertices.
+	 */
+	private static final class ContentKey {
+		private final long h1;
+		private final long h2;
+		private final int count;
+
+		private ContentKey(long h1, long h2, int count) {
+			this.h1 = h1;
+			this.h2 = h2;
+			this.count = count;
+		}
+
+		private static ContentKey of(long address, int size, int count) {
+			long h1 = 0x9E3779B97F4A7C15L;
+			long h2 = 0xC2B2AE3D27D4EB4FL ^ size;
+
+			int i = 0;
+			for (; i + 8 <= size; i += 8) {
+				long v = MemoryUtil.memGetLong(address + i);
+				h1 = Long.rotateLeft(h1 ^ v, 31) * 0x9E3779B97F4A7C15L;
+				h2 = (h2 + v) * 0xC2B2AE3D27D4EB4FL;
+				h2 ^= h2 >>> 29;
+			}
+			for (; i < size; i++) {
+				long v = MemoryUtil.memGetByte(address + i);
+				h1 = Long.rotateLeft(h1 ^ v, 31) * 0x9E3779B97F4A7C15L;
+				h2 = (h2 + v) * 0xC2B2AE3D27D4EB4FL;
+				h2 ^= h2 >>> 29;
+			}
+
+			return new ContentKey(h1, h2, count);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) return true;
+			if (!(o instanceof ContentKey)) return false;
+			ContentKey other = (ContentKey) o;
+			return h1 == other.h1 && h2 == other.h2 && count == other.count;
+		}
+
+		@Override
+		public int hashCode() {
+			return Long.hashCode(h1);
+		}
+	}
+}
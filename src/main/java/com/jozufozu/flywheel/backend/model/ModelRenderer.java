@@ -7,19 +7,29 @@ import com.jozufozu.flywheel.core.model.IModel;
 public class ModelRenderer {
 
 	protected Supplier<IModel> modelSupplier;
+	protected PendingModel pending;
 	protected IBufferedModel model;
 
 	protected boolean initialized;
 
 	public ModelRenderer(Supplier<IModel> modelSupplier) {
+		this(modelSupplier, false);
+	}
+
+	/**
+	 * @param bakeAsync Whether to bake the model on a worker thread, drawing nothing until it's ready.
+	 *                  Only safe if the supplier can run off the render thread.
+	 */
+	public ModelRenderer(Supplier<IModel> modelSupplier, boolean bakeAsync) {
 		this.modelSupplier = modelSupplier;
+		this.pending = new PendingModel(modelSupplier, bakeAsync);
 	}
 
 	/**
 	 * Renders this model, checking first if there is anything to render.
 	 */
 	public void draw() {
-		if (!initialized) init();
+		if (!initialized && pending.isReady()) init();
 		if (!isValid()) return;
 
 		model.setupState();
@@ -30,15 +40,19 @@ public class ModelRenderer {
 	public void delete() {
 		if (model != null)
 			model.delete();
+		if (!initialized)
+			pending.cancel();
 	}
 
 	protected void init() {
 		initialized = true;
-		IModel model = modelSupplier.get();
+		IModel model = pending.get();
 
-		if (model.empty()) return;
+		if (!model.empty()) {
+			this.model = ModelArena.upload(model);
+		}
 
-		this.model = new IndexedModel(model);
+		PendingModel.release(model);
 	}
 
 	protected boolean isValid() {
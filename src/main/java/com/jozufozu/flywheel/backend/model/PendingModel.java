@@ -0,0 +1,100 @@
+package com.jozufozu.flywheel.backend.model;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+import javax.annotation.Nullable;
+
+import com.jozufozu.flywheel.core.model.IModel;
+import com.jozufozu.flywheel.core.model.ModelUtil;
+import com.jozufozu.flywheel.core.model.VertexBlob;
+
+import net.minecraft.util.Util;
+
+/**
+ * A model that may still be baking on a worker thread.
+ *
+ * <p>
+ *     Baking a model, like rendering a block model into a BufferBuilder and reading it back, can take long enough to
+ *     cause a hitch the first time a model is seen. An async pending model runs the supplier and writes out the
+ *     vertices on Minecraft's background executor, so all that's left for the render thread is the GL upload.
+ * </p>
+ */
+public class PendingModel {
+
+	private final Supplier<IModel> supplier;
+	@Nullable
+	private CompletableFuture<VertexBlob> baking;
+
+	/**
+	 * @param async Whether to bake on a worker thread. Only safe if the supplier is.
+	 */
+	public PendingModel(Supplier<IModel> supplier, boolean async) {
+		this.supplier = supplier;
+
+		if (async) {
+			baking = CompletableFuture.supplyAsync(() -> bake(supplier), Util.backgroundExecutor());
+		}
+	}
+
+	private static VertexBlob bake(Supplier<IModel> supplier) {
+		IModel model = supplier.get();
+
+		if (model instanceof VertexBlob) return (VertexBlob) model;
+
+		return new VertexBlob(model);
+	}
+
+	/**
+	 * @return True if {@link #get} won't block.
+	 */
+	public boolean isReady() {
+		return baking == null || baking.isDone();
+	}
+
+	/**
+	 * Get the model, blocking until it's baked. Exceptions thrown while baking are rethrown here.
+	 * Call {@link #release} once it's been uploaded.
+	 */
+	public IModel get() {
+		if (baking == null) return supplier.get();
+
+		try {
+			return baking.join();
+		} catch (CompletionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+			throw e;
+		}
+	}
+
+	/**
+	 * Get the bounding sphere of a model returned by {@link #get}, reusing the one computed while baking if possible.
+	 *
+	 * @see ModelUtil#computeBoundingSphere
+	 */
+	@Nullable
+	public static float[] computeBoundingSphere(IModel model) {
+		if (model instanceof VertexBlob) return ((VertexBlob) model).getBoundingSphere();
+
+		return ModelUtil.computeBoundingSphere(model);
+	}
+
+	/**
+	 * Free what's left of a model returned by {@link #get} after it's been uploaded.
+	 */
+	public static void release(IModel model) {
+		if (model instanceof VertexBlob) ((VertexBlob) model).delete();
+	}
+
+	/**
+	 * The model isn't needed anymore. If it's still baking, it's freed once it's done.
+	 */
+	public void cancel() {
+		if (baking != null) {
+			baking.thenAccept(VertexBlob::delete);
+			baking = null;
+		}
+	}
+}
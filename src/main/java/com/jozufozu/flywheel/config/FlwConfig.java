@@ -4,6 +4,7 @@ import org.apache.commons.lang3.tuple.Pair;
 
 import net.minecraftforge.common.ForgeConfigSpec;
 import net.minecraftforge.common.ForgeConfigSpec.BooleanValue;
+import net.minecraftforge.common.ForgeConfigSpec.IntValue;
 import net.minecraftforge.fml.ModLoadingContext;
 import net.minecraftforge.fml.config.ModConfig;
 
@@ -38,6 +39,14 @@ public class FlwConfig {
 		return client.chunkCaching.get();
 	}
 
+	public boolean modelCache() {
+		return client.modelCache.get();
+	}
+
+	public int workerThreads() {
+		return client.workerThreads.get();
+	}
+
 	public static void init() {
 	}
 
@@ -45,6 +54,8 @@ public class FlwConfig {
 		public final BooleanValue enabled;
 		public final BooleanValue debugNormals;
 		public final BooleanValue chunkCaching;
+		public final BooleanValue modelCache;
+		public final IntValue workerThreads;
 
 		public ClientConfig(ForgeConfigSpec.Builder builder) {
 
@@ -56,6 +67,12 @@ public class FlwConfig {
 
 			chunkCaching = builder.comment("Cache chunk lookups to improve performance.")
 					.define("chunkCaching", true);
+
+			modelCache = builder.comment("Keep baked model geometry on disk, so it doesn't have to be baked again next launch.")
+					.define("modelCache", true);
+
+			workerThreads = builder.comment("How many threads update instances. 0 picks a number based on the CPU, 1 does everything on the render thread. Takes effect after a restart.")
+					.defineInRange("workerThreads", 0, 0, 64);
 		}
 	}
 }
@@ -1,6 +1,10 @@
 package com.jozufozu.flywheel.core;
 
+import com.jozufozu.flywheel.Flywheel;
 import com.jozufozu.flywheel.backend.material.MaterialSpec;
+import com.jozufozu.flywheel.core.materials.AffineData;
+import com.jozufozu.flywheel.core.materials.AnimatedData;
+import com.jozufozu.flywheel.core.materials.InterpolatedData;
 import com.jozufozu.flywheel.core.materials.ModelData;
 import com.jozufozu.flywheel.core.materials.OrientedData;
 import com.jozufozu.flywheel.event.GatherContextEvent;
@@ -11,18 +15,75 @@ import net.minecraftforge.api.distmarker.OnlyIn;
 
 @OnlyIn(Dist.CLIENT)
 public class Materials {
-	public static final MaterialSpec<OrientedData> ORIENTED = new MaterialSpec<>(Locations.ORIENTED, Programs.ORIENTED, Formats.UNLIT_MODEL, Formats.ORIENTED, OrientedData::new);
-	public static final MaterialSpec<ModelData> TRANSFORMED = new MaterialSpec<>(Locations.MODEL, Programs.TRANSFORMED, Formats.UNLIT_MODEL, Formats.TRANSFORMED, ModelData::new);
+	public static final MaterialSpec<OrientedData> ORIENTED = new MaterialSpec<>(Locations.ORIENTED, Programs.ORIENTED, Formats.UNLIT_MODEL, Formats.ORIENTED, OrientedData::new)
+			.setWriter(OrientedData::write)
+			.setBounds(OrientedData::transformSphere)
+			.defaults();
+	public static final MaterialSpec<ModelData> TRANSFORMED = new MaterialSpec<>(Locations.MODEL, Programs.TRANSFORMED, Formats.UNLIT_MODEL, Formats.TRANSFORMED, ModelData::new)
+			.setWriter(ModelData::write)
+			.setBounds(ModelData::transformSphere)
+			.defaults();
+	/**
+	 * Like {@link #TRANSFORMED}, but each instance only holds an {@link Formats#AFFINE affine transform}.
+	 */
+	public static final MaterialSpec<AffineData> AFFINE = new MaterialSpec<>(Locations.AFFINE, Programs.AFFINE, Formats.UNLIT_MODEL, Formats.AFFINE, AffineData::new)
+			.setWriter(AffineData::write)
+			.setBounds(AffineData::transformSphere)
+			.defaults();
+	/**
+	 * Like {@link #ORIENTED}, but blended between ticks on the GPU. See {@link InterpolatedData}.
+	 */
+	public static final MaterialSpec<InterpolatedData> INTERPOLATED = new MaterialSpec<>(Locations.INTERPOLATED, Programs.INTERPOLATED, Formats.UNLIT_MODEL, Formats.INTERPOLATED, InterpolatedData::new)
+			.setWriter(InterpolatedData::write)
+			.setBounds(InterpolatedData::transformSphere)
+			.defaults();
+	/**
+	 * A part rotating about an axis, animated on the GPU. See {@link AnimatedData}.
+	 */
+	public static final MaterialSpec<AnimatedData> ANIMATED = new MaterialSpec<>(Locations.ANIMATED, Programs.ANIMATED, Formats.UNLIT_MODEL, Formats.ANIMATED, AnimatedData::new)
+			.setWriter(AnimatedData::write)
+			.setBounds(AnimatedData::transformSphere)
+			.defaults();
+
+	/**
+	 * Like {@link #ORIENTED}, but with models in the {@link Formats#COMPACT_MODEL compact format}.
+	 */
+	public static final MaterialSpec<OrientedData> ORIENTED_COMPACT = new MaterialSpec<>(Locations.ORIENTED_COMPACT, Programs.ORIENTED_COMPACT, Formats.COMPACT_MODEL, Formats.ORIENTED, OrientedData::new)
+			.setWriter(OrientedData::write)
+			.setBounds(OrientedData::transformSphere)
+			.defaults();
+	/**
+	 * Like {@link #TRANSFORMED}, but with models in the {@link Formats#COMPACT_MODEL compact format}.
+	 */
+	public static final MaterialSpec<ModelData> TRANSFORMED_COMPACT = new MaterialSpec<>(Locations.MODEL_COMPACT, Programs.TRANSFORMED_COMPACT, Formats.COMPACT_MODEL, Formats.TRANSFORMED, ModelData::new)
+			.setWriter(ModelData::write)
+			.setBounds(ModelData::transformSphere)
+			.defaults();
 
 	public static void flwInit(GatherContextEvent event) {
 		event.getBackend()
 				.register(ORIENTED);
 		event.getBackend()
 				.register(TRANSFORMED);
+		event.getBackend()
+				.register(AFFINE);
+		event.getBackend()
+				.register(INTERPOLATED);
+		event.getBackend()
+				.register(ANIMATED);
+		event.getBackend()
+				.register(ORIENTED_COMPACT);
+		event.getBackend()
+				.register(TRANSFORMED_COMPACT);
 	}
 
 	public static class Locations {
 		public static final ResourceLocation MODEL = new ResourceLocation("create", "model");
 		public static final ResourceLocation ORIENTED = new ResourceLocation("create", "oriented");
+		public static final ResourceLocation AFFINE = new ResourceLocation(Flywheel.ID, "affine");
+		public static final ResourceLocation INTERPOLATED = new ResourceLocation(Flywheel.ID, "interpolated");
+		public static final ResourceLocation ANIMATED = new ResourceLocation(Flywheel.ID, "animated");
+		public static final ResourceLocation MODEL_COMPACT = new ResourceLocation(Flywheel.ID, "model_compact");
+		public static final ResourceLocation ORIENTED_COMPACT = new ResourceLocation(Flywheel.ID, "oriented_compact");
 	}
 }
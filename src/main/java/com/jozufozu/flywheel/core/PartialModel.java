@@ -54,4 +54,8 @@ public class PartialModel {
 		return bakedModel;
 	}
 
+	public ResourceLocation getLocation() {
+		return modelLocation;
+	}
+
 }
@@ -7,4 +7,9 @@ import net.minecraft.util.ResourceLocation;
 public class Programs {
 	public static final ResourceLocation TRANSFORMED = new ResourceLocation(Flywheel.ID, "model");
 	public static final ResourceLocation ORIENTED = new ResourceLocation(Flywheel.ID, "oriented");
+	public static final ResourceLocation AFFINE = new ResourceLocation(Flywheel.ID, "affine");
+	public static final ResourceLocation INTERPOLATED = new ResourceLocation(Flywheel.ID, "interpolated");
+	public static final ResourceLocation ANIMATED = new ResourceLocation(Flywheel.ID, "animated");
+	public static final ResourceLocation TRANSFORMED_COMPACT = new ResourceLocation(Flywheel.ID, "model_compact");
+	public static final ResourceLocation ORIENTED_COMPACT = new ResourceLocation(Flywheel.ID, "oriented_compact");
 }
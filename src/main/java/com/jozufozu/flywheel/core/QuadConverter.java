@@ -15,6 +15,7 @@ import org.lwjgl.system.MemoryUtil;
 import com.jozufozu.flywheel.backend.gl.GlNumericType;
 import com.jozufozu.flywheel.backend.gl.buffer.GlBuffer;
 import com.jozufozu.flywheel.backend.gl.buffer.GlBufferType;
+import com.jozufozu.flywheel.backend.gl.buffer.VecBufferWriter;
 import com.jozufozu.flywheel.backend.model.ElementBuffer;
 import com.jozufozu.flywheel.event.ReloadRenderersEvent;
 
@@ -65,7 +66,7 @@ public class QuadConverter {
 			fillBuffer(quads, indexCount, type);
 		}
 
-		return new ElementBuffer(getBuffer(type), indexCount, type);
+		return new ElementBuffer(getBuffer(type), indexCount, type, true);
 	}
 
 	private void initCapacities() {
@@ -127,17 +128,21 @@ public class QuadConverter {
 	}
 
 	private void fillBuffer(ByteBuffer indices, GlNumericType type, int quads) {
+		VecBufferWriter writer = VecBufferWriter.of(indices);
+		int quadBytes = 6 * type.getByteWidth();
+
 		for (int i = 0, max = 4 * quads; i < max; i += 4) {
+			writer.reserve(quadBytes);
 			// triangle a
-			type.castAndBuffer(indices, i);
-			type.castAndBuffer(indices, i + 1);
-			type.castAndBuffer(indices, i + 2);
+			type.castAndBuffer(writer, i);
+			type.castAndBuffer(writer, i + 1);
+			type.castAndBuffer(writer, i + 2);
 			// triangle b
-			type.castAndBuffer(indices, i);
-			type.castAndBuffer(indices, i + 2);
-			type.castAndBuffer(indices, i + 3);
+			type.castAndBuffer(writer, i);
+			type.castAndBuffer(writer, i + 2);
+			type.castAndBuffer(writer, i + 3);
 		}
-		((Buffer) indices).flip();
+		((Buffer) indices).limit(quads * quadBytes);
 	}
 
 	private GlBuffer getBuffer(GlNumericType type) {
@@ -0,0 +1,90 @@
+package com.jozufozu.flywheel.core.materials;
+
+import org.lwjgl.system.MemoryUtil;
+
+import com.jozufozu.flywheel.backend.gl.buffer.MappedBuffer;
+import com.jozufozu.flywheel.backend.instancing.Instancer;
+import com.mojang.blaze3d.matrix.MatrixStack;
+
+import net.minecraft.util.math.vector.Matrix4f;
+
+/**
+ * A transformed instance that only stores the top three rows of its model matrix.
+ *
+ * <p>
+ *     Unlike {@link ModelData} no normal matrix is sent, the shader derives it from the model matrix instead.
+ * </p>
+ */
+public class AffineData extends BasicData {
+	// row major, the GPU reads one row per attribute
+	private final float[] matrix = new float[] {
+			1, 0, 0, 0,
+			0, 1, 0, 0,
+			0, 0, 1, 0,
+	};
+
+	public AffineData(Instancer<?> owner) {
+		super(owner);
+	}
+
+	public AffineData setTransform(MatrixStack stack) {
+		return setTransform(stack.last()
+				.pose());
+	}
+
+	/**
+	 * The bottom row of the matrix is ignored, it's assumed to be {@code 0, 0, 0, 1}.
+	 */
+	public AffineData setTransform(Matrix4f model) {
+		matrix[0] = model.m00;
+		matrix[1] = model.m01;
+		matrix[2] = model.m02;
+		matrix[3] = model.m03;
+		matrix[4] = model.m10;
+		matrix[5] = model.m11;
+		matrix[6] = model.m12;
+		matrix[7] = model.m13;
+		matrix[8] = model.m20;
+		matrix[9] = model.m21;
+		matrix[10] = model.m22;
+		matrix[11] = model.m23;
+		markDirty();
+		return this;
+	}
+
+	@Override
+	public void write(MappedBuffer buf) {
+		super.write(buf);
+		buf.putFloatArray(matrix);
+	}
+
+	@Override
+	public void write(long ptr) {
+		super.write(ptr);
+
+		long matrixPtr = ptr + 6;
+		for (int i = 0; i < matrix.length; i++) {
+			MemoryUtil.memPutFloat(matrixPtr + i * 4L, matrix[i]);
+		}
+	}
+
+	/**
+	 * @see ModelData#transformSphere
+	 */
+	public void transformSphere(float[] sphere) {
+		float[] m = matrix;
+		float x = sphere[0];
+		float y = sphere[1];
+		float z = sphere[2];
+
+		sphere[0] = m[0] * x + m[1] * y + m[2] * z + m[3];
+		sphere[1] = m[4] * x + m[5] * y + m[6] * z + m[7];
+		sphere[2] = m[8] * x + m[9] * y + m[10] * z + m[11];
+
+		float scaleX = m[0] * m[0] + m[4] * m[4] + m[8] * m[8];
+		float scaleY = m[1] * m[1] + m[5] * m[5] + m[9] * m[9];
+		float scaleZ = m[2] * m[2] + m[6] * m[6] + m[10] * m[10];
+
+		sphere[3] *= (float) Math.sqrt(Math.max(scaleX, Math.max(scaleY, scaleZ)));
+	}
+}
@@ -0,0 +1,218 @@
+package com.jozufozu.flywheel.core.materials;
+
+import org.lwjgl.system.MemoryUtil;
+
+import com.jozufozu.flywheel.backend.gl.buffer.MappedBuffer;
+import com.jozufozu.flywheel.backend.instancing.Instancer;
+import com.jozufozu.flywheel.util.AnimationTickHolder;
+
+import net.minecraft.util.math.vector.Vector3f;
+
+/**
+ * An affine instance with a part that rotates about an axis, animated entirely in the vertex shader.
+ *
+ * <p>
+ *     The animation's progress moves linearly from one value to another over a number of ticks. The shader runs it
+ *     through an easing {@link Curve}, then rotates the model about the {@link #setPivot pivot} and moves it along the
+ *     {@link #setAxis axis} by the eased progress. Only the parameters are uploaded, so an animation costs nothing on
+ *     the CPU while it plays.
+ * </p>
+ * <p>
+ *     The normals are transformed by the upper 3x3 of the base transform, so it shouldn't scale non-uniformly.
+ * </p>
+ */
+public class AnimatedData extends AffineData {
+
+	private static final float EPSILON = 1e-4f;
+
+	private float pivotX;
+	private float pivotY;
+	private float pivotZ;
+	private float axisX;
+	private float axisY = 1;
+	private float axisZ;
+
+	private float start;
+	private float duration = 1;
+	private float from;
+	private float to;
+
+	private Curve curve = Curve.LINEAR;
+	private float angle;
+	private float lift;
+
+	public AnimatedData(Instancer<?> owner) {
+		super(owner);
+	}
+
+	/**
+	 * Set the point the animated part rotates about, in model space.
+	 */
+	public AnimatedData setPivot(float x, float y, float z) {
+		this.pivotX = x;
+		this.pivotY = y;
+		this.pivotZ = z;
+		markDirty();
+		return this;
+	}
+
+	/**
+	 * Set the normalized axis the animated part rotates about and moves along, in model space.
+	 */
+	public AnimatedData setAxis(Vector3f axis) {
+		return setAxis(axis.x(), axis.y(), axis.z());
+	}
+
+	public AnimatedData setAxis(float x, float y, float z) {
+		this.axisX = x;
+		this.axisY = y;
+		this.axisZ = z;
+		markDirty();
+		return this;
+	}
+
+	/**
+	 * @param curve The easing applied to the progress.
+	 * @param angle How far to rotate per unit of eased progress, in radians.
+	 * @param lift  How far to move along the axis per unit of eased progress, in blocks.
+	 */
+	public AnimatedData setCurve(Curve curve, float angle, float lift) {
+		this.curve = curve;
+		this.angle = angle;
+		this.lift = lift;
+		markDirty();
+		return this;
+	}
+
+	/**
+	 * Animate the progress from one value to another.
+	 *
+	 * @param start    The tick the animation starts at, on the {@link AnimationTickHolder} clock.
+	 * @param duration How many ticks it lasts.
+	 */
+	public AnimatedData animate(float start, float duration, float from, float to) {
+		this.start = start;
+		this.duration = Math.max(duration, EPSILON);
+		this.from = from;
+		this.to = to;
+		markDirty();
+		return this;
+	}
+
+	/**
+	 * Hold the progress at a single value.
+	 */
+	public AnimatedData hold(float progress) {
+		return animate(AnimationTickHolder.getTicks(), 1, progress, progress);
+	}
+
+	/**
+	 * Follow a value that vanilla interpolates between ticks, and that changes at a constant rate until it reaches
+	 * a limit, like a chest's openness. Call this every tick. The instance is only written when the value stops doing
+	 * what the last call predicted, so a lid that opens over ten ticks is uploaded once.
+	 *
+	 * @param prev    The value at the start of this tick, what vanilla renders at a partial tick of 0.
+	 * @param current The value at the end of this tick, what vanilla renders at a partial tick of 1.
+	 * @param min     The value it stops at when decreasing.
+	 * @param max     The value it stops at when increasing.
+	 */
+	public AnimatedData track(float prev, float current, float min, float max) {
+		int ticks = AnimationTickHolder.getTicks();
+
+		if (Math.abs(progressAt(ticks) - prev) < EPSILON && Math.abs(progressAt(ticks + 1) - current) < EPSILON) {
+			return this;
+		}
+
+		float rate = current - prev;
+
+		if (rate == 0) return animate(ticks, 1, prev, current);
+
+		float target = rate > 0 ? max : min;
+		return animate(ticks, (target - prev) / rate, prev, target);
+	}
+
+	/**
+	 * @return The progress at the given time, before easing. Same as the shader, including across the clock wrapping.
+	 */
+	public float progressAt(float time) {
+		float t = Math.max(0, Math.min(1, AnimationTickHolder.ticksSince(time, start) / duration));
+		return from + (to - from) * t;
+	}
+
+	@Override
+	public void write(MappedBuffer buf) {
+		super.write(buf);
+
+		buf.putVec3(pivotX, pivotY, pivotZ)
+				.putVec3(axisX, axisY, axisZ)
+				.putVec4(start, duration, from, to)
+				.putVec3(curve.ordinal(), angle, lift);
+	}
+
+	@Override
+	public void write(long ptr) {
+		super.write(ptr);
+
+		MemoryUtil.memPutFloat(ptr + 54, pivotX);
+		MemoryUtil.memPutFloat(ptr + 58, pivotY);
+		MemoryUtil.memPutFloat(ptr + 62, pivotZ);
+		MemoryUtil.memPutFloat(ptr + 66, axisX);
+		MemoryUtil.memPutFloat(ptr + 70, axisY);
+		MemoryUtil.memPutFloat(ptr + 74, axisZ);
+		MemoryUtil.memPutFloat(ptr + 78, start);
+		MemoryUtil.memPutFloat(ptr + 82, duration);
+		MemoryUtil.memPutFloat(ptr + 86, from);
+		MemoryUtil.memPutFloat(ptr + 90, to);
+		MemoryUtil.memPutFloat(ptr + 94, curve.ordinal());
+		MemoryUtil.memPutFloat(ptr + 98, angle);
+		MemoryUtil.memPutFloat(ptr + 102, lift);
+	}
+
+	/**
+	 * Move a model space bounding sphere to where this instance draws it, wherever the animation puts it.
+	 * The sphere is grown to cover a full turn about the pivot.
+	 */
+	@Override
+	public void transformSphere(float[] sphere) {
+		float dX = sphere[0] - pivotX;
+		float dY = sphere[1] - pivotY;
+		float dZ = sphere[2] - pivotZ;
+
+		float reach = Math.abs(lift) * Math.max(Math.abs(curve.apply(from)), Math.abs(curve.apply(to)));
+
+		sphere[0] = pivotX;
+		sphere[1] = pivotY;
+		sphere[2] = pivotZ;
+		sphere[3] += (float) Math.sqrt(dX * dX + dY * dY + dZ * dZ) + reach;
+
+		super.transformSphere(sphere);
+	}
+
+	/**
+	 * Easing curves, evaluated by {@code FLWEase} in {@code flywheel:animated.vert}. The order has to match.
+	 */
+	public enum Curve {
+		LINEAR,
+		/**
+		 * Fast at first, slowing down at the end, like a chest lid.
+		 */
+		CUBIC_OUT,
+		/**
+		 * A swing that dies down over time, like a bell. The progress is the number of ticks since it started.
+		 */
+		DAMPED_SWING,
+		;
+
+		public float apply(float p) {
+			switch (this) {
+			case CUBIC_OUT:
+				float q = 1 - p;
+				return 1 - q * q * q;
+			case DAMPED_SWING:
+				return (float) Math.sin(p / Math.PI) / (4 + p / 3);
+			default:
+				return p;
+			}
+		}
+	}
+}
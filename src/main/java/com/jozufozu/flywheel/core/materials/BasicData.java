@@ -1,5 +1,7 @@
 package com.jozufozu.flywheel.core.materials;
 
+import org.lwjgl.system.MemoryUtil;
+
 import com.jozufozu.flywheel.backend.gl.buffer.MappedBuffer;
 import com.jozufozu.flywheel.backend.instancing.InstanceData;
 import com.jozufozu.flywheel.backend.instancing.Instancer;
@@ -72,6 +74,23 @@ public abstract class BasicData extends InstanceData implements IFlatLight<Basic
 
 	@Override
 	public void write(MappedBuffer buf) {
-		buf.putByteArray(new byte[]{blockLight, skyLight, r, g, b, a});
+		buf.put(blockLight)
+				.put(skyLight)
+				.put(r)
+				.put(g)
+				.put(b)
+				.put(a);
+	}
+
+	/**
+	 * Write this instance straight to memory, in the same layout as {@link #write(MappedBuffer)}.
+	 */
+	public void write(long ptr) {
+		MemoryUtil.memPutByte(ptr, blockLight);
+		MemoryUtil.memPutByte(ptr + 1, skyLight);
+		MemoryUtil.memPutByte(ptr + 2, r);
+		MemoryUtil.memPutByte(ptr + 3, g);
+		MemoryUtil.memPutByte(ptr + 4, b);
+		MemoryUtil.memPutByte(ptr + 5, a);
 	}
 }
@@ -0,0 +1,192 @@
+package com.jozufozu.flywheel.core.materials;
+
+import org.lwjgl.system.MemoryUtil;
+
+import com.jozufozu.flywheel.backend.gl.buffer.MappedBuffer;
+import com.jozufozu.flywheel.backend.instancing.Instancer;
+import com.jozufozu.flywheel.util.AnimationTickHolder;
+
+import net.minecraft.util.math.vector.Quaternion;
+import net.minecraft.util.math.vector.Vector3d;
+import net.minecraft.util.math.vector.Vector3f;
+
+/**
+ * An oriented instance that moves smoothly between ticks without being updated every frame.
+ *
+ * <p>
+ *     Each instance holds where it was last tick and where it is this tick, and the vertex shader blends the two
+ *     using the partial ticks. Update it from {@link com.jozufozu.flywheel.backend.instancing.ITickableInstance#tick()
+ *     tick()}: call {@link #beginTick()}, then set the new position and rotation. An instance that isn't updated simply
+ *     stays where it was put last.
+ * </p>
+ * <p>
+ *     Motion is blended over a single tick, so ticking instances should not
+ *     {@link com.jozufozu.flywheel.backend.instancing.ITickableInstance#decreaseTickRateWithDistance() decrease their tick rate}.
+ * </p>
+ */
+public class InterpolatedData extends BasicData {
+
+	private float prevX;
+	private float prevY;
+	private float prevZ;
+	private float posX;
+	private float posY;
+	private float posZ;
+	private float pivotX = 0.5f;
+	private float pivotY = 0.5f;
+	private float pivotZ = 0.5f;
+	private float prevQX;
+	private float prevQY;
+	private float prevQZ;
+	private float prevQW = 1;
+	private float qX;
+	private float qY;
+	private float qZ;
+	private float qW = 1;
+
+	private float tick;
+
+	public InterpolatedData(Instancer<?> owner) {
+		super(owner);
+	}
+
+	/**
+	 * Make the current state the previous one, so the instance moves from here to whatever is set next.
+	 */
+	public InterpolatedData beginTick() {
+		prevX = posX;
+		prevY = posY;
+		prevZ = posZ;
+		prevQX = qX;
+		prevQY = qY;
+		prevQZ = qZ;
+		prevQW = qW;
+		tick = AnimationTickHolder.getTicks();
+		markDirty();
+		return this;
+	}
+
+	/**
+	 * Make the previous state the current one, so the instance jumps straight to where it is.
+	 * Use this when the instance is created or teleported.
+	 */
+	public InterpolatedData snap() {
+		prevX = posX;
+		prevY = posY;
+		prevZ = posZ;
+		prevQX = qX;
+		prevQY = qY;
+		prevQZ = qZ;
+		prevQW = qW;
+		markDirty();
+		return this;
+	}
+
+	public InterpolatedData setPosition(Vector3d pos) {
+		return setPosition((float) pos.x(), (float) pos.y(), (float) pos.z());
+	}
+
+	public InterpolatedData setPosition(float x, float y, float z) {
+		this.posX = x;
+		this.posY = y;
+		this.posZ = z;
+		markDirty();
+		return this;
+	}
+
+	public InterpolatedData setPivot(Vector3f pos) {
+		return setPivot(pos.x(), pos.y(), pos.z());
+	}
+
+	public InterpolatedData setPivot(float x, float y, float z) {
+		this.pivotX = x;
+		this.pivotY = y;
+		this.pivotZ = z;
+		markDirty();
+		return this;
+	}
+
+	public InterpolatedData setRotation(Quaternion q) {
+		return setRotation(q.i(), q.j(), q.k(), q.r());
+	}
+
+	public InterpolatedData setRotation(float x, float y, float z, float w) {
+		this.qX = x;
+		this.qY = y;
+		this.qZ = z;
+		this.qW = w;
+		markDirty();
+		return this;
+	}
+
+	@Override
+	public void write(MappedBuffer buf) {
+		super.write(buf);
+
+		buf.putVec3(prevX, prevY, prevZ)
+				.putVec3(posX, posY, posZ)
+				.putVec3(pivotX, pivotY, pivotZ)
+				.putVec4(prevQX, prevQY, prevQZ, prevQW)
+				.putVec4(qX, qY, qZ, qW)
+				.putFloat(tick);
+	}
+
+	@Override
+	public void write(long ptr) {
+		super.write(ptr);
+
+		MemoryUtil.memPutFloat(ptr + 6, prevX);
+		MemoryUtil.memPutFloat(ptr + 10, prevY);
+		MemoryUtil.memPutFloat(ptr + 14, prevZ);
+		MemoryUtil.memPutFloat(ptr + 18, posX);
+		MemoryUtil.memPutFloat(ptr + 22, posY);
+		MemoryUtil.memPutFloat(ptr + 26, posZ);
+		MemoryUtil.memPutFloat(ptr + 30, pivotX);
+		MemoryUtil.memPutFloat(ptr + 34, pivotY);
+		MemoryUtil.memPutFloat(ptr + 38, pivotZ);
+		MemoryUtil.memPutFloat(ptr + 42, prevQX);
+		MemoryUtil.memPutFloat(ptr + 46, prevQY);
+		MemoryUtil.memPutFloat(ptr + 50, prevQZ);
+		MemoryUtil.memPutFloat(ptr + 54, prevQW);
+		MemoryUtil.memPutFloat(ptr + 58, qX);
+		MemoryUtil.memPutFloat(ptr + 62, qY);
+		MemoryUtil.memPutFloat(ptr + 66, qZ);
+		MemoryUtil.memPutFloat(ptr + 70, qW);
+		MemoryUtil.memPutFloat(ptr + 74, tick);
+	}
+
+	/**
+	 * Move a model space bounding sphere so it covers where this instance is drawn at both ticks.
+	 */
+	public void transformSphere(float[] sphere) {
+		float x = sphere[0] - pivotX;
+		float y = sphere[1] - pivotY;
+		float z = sphere[2] - pivotZ;
+
+		// same as rotateVertexByQuat in the shader
+		float cX = prevQY * z - prevQZ * y + prevQW * x;
+		float cY = prevQZ * x - prevQX * z + prevQW * y;
+		float cZ = prevQX * y - prevQY * x + prevQW * z;
+
+		float pX = x + 2 * (prevQY * cZ - prevQZ * cY) + prevX;
+		float pY = y + 2 * (prevQZ * cX - prevQX * cZ) + prevY;
+		float pZ = z + 2 * (prevQX * cY - prevQY * cX) + prevZ;
+
+		cX = qY * z - qZ * y + qW * x;
+		cY = qZ * x - qX * z + qW * y;
+		cZ = qX * y - qY * x + qW * z;
+
+		float nX = x + 2 * (qY * cZ - qZ * cY) + posX;
+		float nY = y + 2 * (qZ * cX - qX * cZ) + posY;
+		float nZ = z + 2 * (qX * cY - qY * cX) + posZ;
+
+		sphere[0] = (pX + nX) * 0.5f + pivotX;
+		sphere[1] = (pY + nY) * 0.5f + pivotY;
+		sphere[2] = (pZ + nZ) * 0.5f + pivotZ;
+
+		float dX = nX - pX;
+		float dY = nY - pY;
+		float dZ = nZ - pZ;
+		sphere[3] += (float) Math.sqrt(dX * dX + dY * dY + dZ * dZ) * 0.5f;
+	}
+}
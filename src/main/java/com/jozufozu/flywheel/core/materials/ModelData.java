@@ -1,21 +1,21 @@
 package com.jozufozu.flywheel.core.materials;
 
+import org.lwjgl.system.MemoryUtil;
+
 import com.jozufozu.flywheel.backend.gl.buffer.MappedBuffer;
 import com.jozufozu.flywheel.backend.instancing.Instancer;
 import com.jozufozu.flywheel.util.RenderUtil;
 import com.mojang.blaze3d.matrix.MatrixStack;
 
 public class ModelData extends BasicData {
-	private static final float[] empty = new float[25];
-
-	private float[] matrices = empty;
+	private final float[] matrices = new float[25];
 
 	public ModelData(Instancer<?> owner) {
 		super(owner);
 	}
 
 	public ModelData setTransform(MatrixStack stack) {
-		matrices = RenderUtil.writeMatrixStack(stack);
+		RenderUtil.writeMatrixStack(stack, matrices);
 		markDirty();
 		return this;
 	}
@@ -25,4 +25,35 @@ public class ModelData extends BasicData {
 		super.write(buf);
 		buf.putFloatArray(matrices);
 	}
+
+	@Override
+	public void write(long ptr) {
+		super.write(ptr);
+
+		long matrixPtr = ptr + 6;
+		for (int i = 0; i < matrices.length; i++) {
+			MemoryUtil.memPutFloat(matrixPtr + i * 4L, matrices[i]);
+		}
+	}
+
+	/**
+	 * Move a model space bounding sphere to where this instance draws it.
+	 * The radius is scaled by the longest axis of the transform, so the sphere stays conservative under any scale.
+	 */
+	public void transformSphere(float[] sphere) {
+		float[] m = matrices;
+		float x = sphere[0];
+		float y = sphere[1];
+		float z = sphere[2];
+
+		sphere[0] = m[0] * x + m[4] * y + m[8] * z + m[12];
+		sphere[1] = m[1] * x + m[5] * y + m[9] * z + m[13];
+		sphere[2] = m[2] * x + m[6] * y + m[10] * z + m[14];
+
+		float scaleX = m[0] * m[0] + m[1] * m[1] + m[2] * m[2];
+		float scaleY = m[4] * m[4] + m[5] * m[5] + m[6] * m[6];
+		float scaleZ = m[8] * m[8] + m[9] * m[9] + m[10] * m[10];
+
+		sphere[3] *= (float) Math.sqrt(Math.max(scaleX, Math.max(scaleY, scaleZ)));
+	}
 }
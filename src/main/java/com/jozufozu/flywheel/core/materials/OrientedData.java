@@ -1,5 +1,7 @@
 package com.jozufozu.flywheel.core.materials;
 
+import org.lwjgl.system.MemoryUtil;
+
 import com.jozufozu.flywheel.backend.gl.buffer.MappedBuffer;
 import com.jozufozu.flywheel.backend.instancing.Instancer;
 import com.jozufozu.flywheel.util.vec.Vec3;
@@ -92,7 +94,43 @@ public class OrientedData extends BasicData {
 	public void write(MappedBuffer buf) {
 		super.write(buf);
 
-		buf.putFloatArray(new float[]{posX, posY, posZ, pivotX, pivotY, pivotZ, qX, qY, qZ, qW});
+		buf.putVec3(posX, posY, posZ)
+				.putVec3(pivotX, pivotY, pivotZ)
+				.putVec4(qX, qY, qZ, qW);
+	}
+
+	@Override
+	public void write(long ptr) {
+		super.write(ptr);
+
+		MemoryUtil.memPutFloat(ptr + 6, posX);
+		MemoryUtil.memPutFloat(ptr + 10, posY);
+		MemoryUtil.memPutFloat(ptr + 14, posZ);
+		MemoryUtil.memPutFloat(ptr + 18, pivotX);
+		MemoryUtil.memPutFloat(ptr + 22, pivotY);
+		MemoryUtil.memPutFloat(ptr + 26, pivotZ);
+		MemoryUtil.memPutFloat(ptr + 30, qX);
+		MemoryUtil.memPutFloat(ptr + 34, qY);
+		MemoryUtil.memPutFloat(ptr + 38, qZ);
+		MemoryUtil.memPutFloat(ptr + 42, qW);
+	}
+
+	/**
+	 * Move a model space bounding sphere to where this instance draws it. Rotation doesn't change the radius.
+	 */
+	public void transformSphere(float[] sphere) {
+		float x = sphere[0] - pivotX;
+		float y = sphere[1] - pivotY;
+		float z = sphere[2] - pivotZ;
+
+		// same as rotateVertexByQuat in the shader
+		float cX = qY * z - qZ * y + qW * x;
+		float cY = qZ * x - qX * z + qW * y;
+		float cZ = qX * y - qY * x + qW * z;
+
+		sphere[0] = x + 2 * (qY * cZ - qZ * cY) + pivotX + posX;
+		sphere[1] = y + 2 * (qZ * cX - qX * cZ) + pivotY + posY;
+		sphere[2] = z + 2 * (qX * cY - qY * cX) + pivotZ + posZ;
 	}
 }
 
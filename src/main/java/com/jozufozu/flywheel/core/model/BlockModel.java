@@ -1,14 +1,17 @@
 package com.jozufozu.flywheel.core.model;
 
 import java.util.Arrays;
+import java.util.Random;
 
 import org.lwjgl.opengl.GL11;
 
 import com.jozufozu.flywheel.backend.gl.attrib.VertexFormat;
 import com.jozufozu.flywheel.backend.gl.buffer.VecBuffer;
+import com.jozufozu.flywheel.backend.gl.buffer.VecBufferWriter;
 import com.jozufozu.flywheel.backend.model.ElementBuffer;
 import com.jozufozu.flywheel.core.QuadConverter;
 import com.jozufozu.flywheel.util.BufferBuilderReader;
+import com.jozufozu.flywheel.util.VirtualEmptyBlockReader;
 import com.jozufozu.flywheel.util.VirtualEmptyModelData;
 import com.mojang.blaze3d.matrix.MatrixStack;
 
@@ -72,9 +75,26 @@ public class BlockModel implements IModel {
 		}
 	}
 
+	@Override
+	public void buffer(VecBufferWriter writer) {
+		int vertexCount = vertexCount();
+		int stride = format().getStride();
+
+		for (int i = 0; i < vertexCount; i++) {
+			writer.reserve(stride)
+					.putVec3(reader.getX(i), reader.getY(i), reader.getZ(i))
+					.putVec3(reader.getNX(i), reader.getNY(i), reader.getNZ(i))
+					.putVec2(reader.getU(i), reader.getV(i));
+		}
+	}
+
+	/**
+	 * Render a model into a new BufferBuilder. Renders against an empty world with its own random, so it can be called
+	 * from any thread.
+	 */
 	public static BufferBuilder getBufferBuilder(IBakedModel model, BlockState referenceState, MatrixStack ms) {
-		Minecraft mc = Minecraft.getInstance();
-		BlockRendererDispatcher dispatcher = mc.getBlockRenderer();
+		BlockRendererDispatcher dispatcher = Minecraft.getInstance()
+				.getBlockRenderer();
 		BlockModelRenderer blockRenderer = dispatcher.getModelRenderer();
 		BufferBuilder builder = new BufferBuilder(512);
 
@@ -86,7 +106,7 @@ public class BlockModel implements IModel {
 		//				.collect(Collectors.toList());
 
 		builder.begin(GL11.GL_QUADS, DefaultVertexFormats.BLOCK);
-		blockRenderer.renderModel(mc.level, model, referenceState, BlockPos.ZERO.above(255), ms, builder, true, mc.level.random, 42, OverlayTexture.NO_OVERLAY, VirtualEmptyModelData.INSTANCE);
+		blockRenderer.renderModel(VirtualEmptyBlockReader.INSTANCE, model, referenceState, BlockPos.ZERO.above(255), ms, builder, true, new Random(), 42, OverlayTexture.NO_OVERLAY, VirtualEmptyModelData.INSTANCE);
 		builder.end();
 		return builder;
 	}
@@ -0,0 +1,151 @@
+package com.jozufozu.flywheel.core.model;
+
+import java.nio.ByteBuffer;
+
+import org.lwjgl.BufferUtils;
+import org.lwjgl.system.MemoryUtil;
+
+import com.jozufozu.flywheel.backend.gl.attrib.VertexFormat;
+import com.jozufozu.flywheel.backend.gl.buffer.VecBuffer;
+import com.jozufozu.flywheel.backend.gl.buffer.VecBufferWriter;
+import com.jozufozu.flywheel.backend.model.ElementBuffer;
+import com.jozufozu.flywheel.core.Formats;
+
+/**
+ * Re-encodes a {@link Formats#UNLIT_MODEL} model as {@link Formats#COMPACT_MODEL}.
+ *
+ * <p>
+ *     Positions become signed normalized shorts covering {@link #POSITION_RANGE} blocks in every direction, which
+ *     is precise to 1/2048th of a block. The range is the same for every model, so models of a material can still be
+ *     drawn together, and models that reach further are rejected rather than squashed. Normals are octahedral
+ *     encoded into two bytes, and UVs become unsigned normalized shorts. The decode lives in
+ *     {@code flywheel:data/compactvertex.glsl}.
+ * </p>
+ * <p>
+ *     The source is read and encoded once, when it's wrapped. The encoded vertices are kept until the model is
+ *     garbage collected, so buffering it only copies them.
+ * </p>
+ */
+public class CompactModel implements IModel {
+
+	/**
+	 * How far from the model's origin a vertex can be. Has to match {@code FLW_COMPACT_POS_RANGE} in the shader.
+	 */
+	public static final float POSITION_RANGE = 16;
+
+	private static final int SOURCE_STRIDE = Formats.UNLIT_MODEL.getStride();
+
+	private final IModel source;
+	private final ByteBuffer data;
+
+	private CompactModel(IModel source) {
+		this.source = source;
+		this.data = BufferUtils.createByteBuffer(size());
+
+		ByteBuffer scratch = MemoryUtil.memAlloc(source.size());
+		try {
+			source.buffer(VecBufferWriter.of(scratch));
+			encode(MemoryUtil.memAddress(scratch), VecBufferWriter.of(data));
+		} finally {
+			MemoryUtil.memFree(scratch);
+		}
+	}
+
+	/**
+	 * @return The model in the compact format, re-encoding it if it's in the unlit model format.
+	 * @throws IllegalArgumentException if the model is in neither format, or if a vertex is further than
+	 *                                  {@link #POSITION_RANGE} blocks from the origin and can't be encoded.
+	 */
+	public static IModel of(IModel model) {
+		if (model.format() == Formats.COMPACT_MODEL) return model;
+
+		if (model.format() != Formats.UNLIT_MODEL) {
+			throw new IllegalArgumentException("Cannot compact a model in format " + model.format());
+		}
+
+		return new CompactModel(model);
+	}
+
+	public static float decodePosition(short s) {
+		return Math.max(s / 32767f, -1) * POSITION_RANGE;
+	}
+
+	private static short encodePosition(float f) {
+		if (Math.abs(f) > POSITION_RANGE) {
+			throw new IllegalArgumentException("Cannot compact a model reaching " + f + " blocks from its origin, at most " + POSITION_RANGE + " fit. Use a material with an uncompressed model format.");
+		}
+
+		return (short) Math.round(f / POSITION_RANGE * 32767);
+	}
+
+	private static short encodeUV(float f) {
+		float n = Math.max(0, Math.min(1, f));
+		return (short) Math.round(n * 65535);
+	}
+
+	private static byte encodeSnorm8(float f) {
+		return (byte) Math.round(Math.max(-1, Math.min(1, f)) * 127);
+	}
+
+	private void encode(long src, VecBufferWriter writer) {
+		int vertexCount = vertexCount();
+		int stride = format().getStride();
+
+		for (int i = 0; i < vertexCount; i++) {
+			long vertex = src + (long) i * SOURCE_STRIDE;
+
+			float nX = MemoryUtil.memGetByte(vertex + 12) / 127f;
+			float nY = MemoryUtil.memGetByte(vertex + 13) / 127f;
+			float nZ = MemoryUtil.memGetByte(vertex + 14) / 127f;
+
+			// project onto the octahedron, then fold the lower half over the upper one
+			float l1 = Math.abs(nX) + Math.abs(nY) + Math.abs(nZ);
+			float oX = l1 > 0 ? nX / l1 : 0;
+			float oY = l1 > 0 ? nY / l1 : 1;
+			float oZ = l1 > 0 ? nZ / l1 : 0;
+			if (oY < 0) {
+				float fX = (1 - Math.abs(oZ)) * (oX >= 0 ? 1 : -1);
+				float fZ = (1 - Math.abs(oX)) * (oZ >= 0 ? 1 : -1);
+				oX = fX;
+				oZ = fZ;
+			}
+
+			writer.reserve(stride)
+					.putShort(encodePosition(MemoryUtil.memGetFloat(vertex)))
+					.putShort(encodePosition(MemoryUtil.memGetFloat(vertex + 4)))
+					.putShort(encodePosition(MemoryUtil.memGetFloat(vertex + 8)))
+					.putVec2(encodeSnorm8(oX), encodeSnorm8(oZ))
+					.putShort(encodeUV(MemoryUtil.memGetFloat(vertex + 15)))
+					.putShort(encodeUV(MemoryUtil.memGetFloat(vertex + 19)));
+		}
+	}
+
+	@Override
+	public void buffer(VecBuffer buffer) {
+		buffer.unwrap()
+				.put(data.duplicate());
+	}
+
+	@Override
+	public void buffer(VecBufferWriter writer) {
+		int size = size();
+		writer.reserve(size);
+		MemoryUtil.memCopy(MemoryUtil.memAddress(data), writer.address(), size);
+		writer.skip(size);
+	}
+
+	@Override
+	public int vertexCount() {
+		return source.vertexCount();
+	}
+
+	@Override
+	public VertexFormat format() {
+		return Formats.COMPACT_MODEL;
+	}
+
+	@Override
+	public ElementBuffer createEBO() {
+		return source.createEBO();
+	}
+}
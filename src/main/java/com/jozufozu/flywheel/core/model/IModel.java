@@ -2,6 +2,7 @@ package com.jozufozu.flywheel.core.model;
 
 import com.jozufozu.flywheel.backend.gl.attrib.VertexFormat;
 import com.jozufozu.flywheel.backend.gl.buffer.VecBuffer;
+import com.jozufozu.flywheel.backend.gl.buffer.VecBufferWriter;
 import com.jozufozu.flywheel.backend.model.ElementBuffer;
 import com.jozufozu.flywheel.core.QuadConverter;
 
@@ -32,6 +33,20 @@ public interface IModel {
 	 */
 	void buffer(VecBuffer buffer);
 
+	/**
+	 * Copy this model into memory, advancing the writer by {@link #size()} bytes.
+	 *
+	 * <p>
+	 *     The default implementation goes through {@link #buffer(VecBuffer)}.
+	 *     Override this to write through the pointer directly.
+	 * </p>
+	 */
+	default void buffer(VecBufferWriter writer) {
+		int size = size();
+		buffer(new VecBuffer(writer.asByteBuffer(size)));
+		writer.skip(size);
+	}
+
 	/**
 	 * @return The number of vertices the model has.
 	 */
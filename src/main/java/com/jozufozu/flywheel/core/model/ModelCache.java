@@ -0,0 +1,289 @@
+package com.jozufozu.flywheel.core.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import javax.annotation.Nullable;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.jozufozu.flywheel.backend.Backend;
+import com.jozufozu.flywheel.backend.gl.attrib.VertexFormat;
+import com.jozufozu.flywheel.config.FlwConfig;
+
+import net.minecraft.client.Minecraft;
+import net.minecraft.resources.ResourcePackInfo;
+import net.minecraftforge.client.event.ModelBakeEvent;
+import net.minecraftforge.fml.ModList;
+import net.minecraftforge.fml.loading.FMLPaths;
+import net.minecraftforge.fml.loading.moddiscovery.ModFileInfo;
+
+/**
+ * Baked model geometry kept on disk between launches.
+ *
+ * <p>
+ *     Each entry is a file holding the vertices of one model, already in its flywheel vertex format, behind a small
+ *     header. On a hit the file is memory mapped and handed to the model arena as is, so the model never goes through
+ *     the block renderer. Entries live in a directory named after a hash of the selected resource packs and the
+ *     loaded mods, including the size and modification time of their files; when those change, the old directory is
+ *     deleted on the next resource reload. Nothing is cached when mods are loaded from folders, as in a development
+ *     environment.
+ * </p>
+ * <p>
+ *     Only models indexed as plain quads can be cached, since the indices are rebuilt by the
+ *     {@link com.jozufozu.flywheel.core.QuadConverter QuadConverter} rather than stored.
+ * </p>
+ */
+public class ModelCache {
+
+	private static final int MAGIC = 0x464c574d; // FLWM
+	private static final int VERSION = 1;
+	// magic, version, vertex count, stride, bounding sphere
+	private static final int HEADER_SIZE = 32;
+	private static final String TRASH_SUFFIX = ".old";
+
+	@Nullable
+	private static volatile Path directory;
+
+	/**
+	 * Cache the models made by the given supplier.
+	 *
+	 * @param key    Identifies the model. Has to be unique and stable across launches.
+	 * @param format The format the supplier's models are in.
+	 */
+	public static Supplier<IModel> cached(String key, VertexFormat format, Supplier<IModel> supplier) {
+		return () -> load(key, format, supplier);
+	}
+
+	/**
+	 * Read a model from the cache, or bake it with the supplier and store it. Safe to call from any thread,
+	 * as long as the supplier is.
+	 */
+	public static IModel load(String key, VertexFormat format, Supplier<IModel> supplier) {
+		Path directory = ModelCache.directory;
+
+		if (directory == null || !FlwConfig.get().modelCache()) return supplier.get();
+
+		Path file = directory.resolve(Hashing.murmur3_128()
+				.newHasher()
+				.putString(key, StandardCharsets.UTF_8)
+				.putString(format.toString(), StandardCharsets.UTF_8)
+				.hash() + ".bin");
+
+		VertexBlob cached = read(file, format);
+		if (cached != null) return cached;
+
+		VertexBlob blob = new VertexBlob(supplier.get());
+		write(file, blob);
+		return blob;
+	}
+
+	@Nullable
+	private static VertexBlob read(Path file, VertexFormat format) {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size < HEADER_SIZE || size > Integer.MAX_VALUE) return null;
+
+			MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+			mapped.order(ByteOrder.nativeOrder());
+
+			int vertexCount = mapped.getInt(8);
+			int stride = mapped.getInt(12);
+
+			if (mapped.getInt(0) != MAGIC || mapped.getInt(4) != VERSION || stride != format.getStride()
+					|| (long) vertexCount * stride != size - HEADER_SIZE) {
+				return null;
+			}
+
+			float[] sphere = new float[4];
+			for (int i = 0; i < 4; i++) {
+				sphere[i] = mapped.getFloat(16 + i * 4);
+			}
+
+			mapped.position(HEADER_SIZE);
+			ByteBuffer data = mapped.slice()
+					.order(ByteOrder.nativeOrder());
+
+			// the mapping stays valid after the channel is closed
+			return VertexBlob.wrap(format, vertexCount, data, Float.isNaN(sphere[3]) ? null : sphere);
+		} catch (NoSuchFileException e) {
+			return null;
+		} catch (IOException e) {
+			Backend.log.warn("Could not read cached model " + file, e);
+			return null;
+		}
+	}
+
+	private static void write(Path file, VertexBlob blob) {
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+				.order(ByteOrder.nativeOrder());
+
+		header.putInt(MAGIC)
+				.putInt(VERSION)
+				.putInt(blob.vertexCount())
+				.putInt(blob.format()
+						.getStride());
+
+		float[] sphere = blob.getBoundingSphere();
+		for (int i = 0; i < 4; i++) {
+			header.putFloat(sphere != null ? sphere[i] : Float.NaN);
+		}
+		header.flip();
+
+		try {
+			Files.createDirectories(file.getParent());
+
+			// write somewhere else first, so a crash never leaves a half written entry behind
+			Path temp = Files.createTempFile(file.getParent(), "model", ".tmp");
+			try {
+				try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+					ByteBuffer data = blob.getData();
+					while (data.hasRemaining()) {
+						channel.write(new ByteBuffer[] { header, data });
+					}
+				}
+
+				// fails on Windows if the old entry is still mapped
+				Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} finally {
+				Files.deleteIfExists(temp);
+			}
+		} catch (IOException e) {
+			Backend.log.warn("Could not cache model " + file, e);
+		}
+	}
+
+	/**
+	 * Pick the directory matching the resource packs the models were just baked with, and delete the others.
+	 */
+	public static void onModelBake(ModelBakeEvent event) {
+		Hasher hasher = Hashing.murmur3_128()
+				.newHasher()
+				.putInt(VERSION);
+
+		Path packDirectory = Minecraft.getInstance()
+				.getResourcePackDirectory()
+				.toPath();
+
+		try {
+			for (ResourcePackInfo pack : Minecraft.getInstance()
+					.getResourcePackRepository()
+					.getSelectedPacks()) {
+				String id = pack.getId();
+				hasher.putString(id, StandardCharsets.UTF_8);
+
+				// packs from the resource pack folder can be edited in place without changing their id
+				if (id.startsWith("file/")) {
+					hashContents(hasher, packDirectory.resolve(id.substring("file/".length())));
+				}
+			}
+
+			for (ModFileInfo modFile : ModList.get()
+					.getModFiles()) {
+				Path path = modFile.getFile()
+						.getFilePath();
+
+				if (Files.isDirectory(path)) {
+					// a development environment, where resources change on every build
+					directory = null;
+					return;
+				}
+
+				modFile.getMods()
+						.forEach(mod -> hasher.putString(mod.getModId(), StandardCharsets.UTF_8)
+								.putString(mod.getVersion()
+										.toString(), StandardCharsets.UTF_8));
+				hashContents(hasher, path);
+			}
+		} catch (IOException e) {
+			Backend.log.warn("Could not check resource packs for changes, not caching models", e);
+			directory = null;
+			return;
+		}
+
+		Path root = FMLPaths.GAMEDIR.get()
+				.resolve("flywheel")
+				.resolve("model_cache");
+		Path current = root.resolve(hasher.hash()
+				.toString());
+
+		deleteOthers(root, current);
+
+		directory = current;
+	}
+
+	/**
+	 * Hash the size and modification time of a file, or of every file in a folder.
+	 */
+	private static void hashContents(Hasher hasher, Path path) throws IOException {
+		if (!Files.exists(path)) return;
+
+		try (Stream<Path> walk = Files.walk(path)) {
+			for (Path file : (Iterable<Path>) walk.sorted()::iterator) {
+				if (!Files.isRegularFile(file)) continue;
+
+				hasher.putString(path.relativize(file)
+						.toString(), StandardCharsets.UTF_8)
+						.putLong(Files.size(file))
+						.putLong(Files.getLastModifiedTime(file)
+								.toMillis());
+			}
+		}
+	}
+
+	private static void deleteOthers(Path root, Path keep) {
+		if (!Files.isDirectory(root)) return;
+
+		try (Stream<Path> children = Files.list(root)) {
+			children.filter(child -> !child.equals(keep))
+					.forEach(ModelCache::deleteDirectory);
+		} catch (IOException e) {
+			Backend.log.warn("Could not clean up model cache", e);
+		}
+	}
+
+	/**
+	 * Move a stale directory out of the way before deleting it, so it's either gone or left whole. Whatever can't be
+	 * deleted, like files that are still mapped on Windows, is left in a directory no key can map to, and tried again
+	 * next time.
+	 */
+	private static void deleteDirectory(Path path) {
+		Path trash = path;
+
+		if (!path.getFileName()
+				.toString()
+				.endsWith(TRASH_SUFFIX)) {
+			trash = path.resolveSibling(path.getFileName() + TRASH_SUFFIX);
+			try {
+				Files.move(path, trash, StandardCopyOption.ATOMIC_MOVE);
+			} catch (IOException e) {
+				Backend.log.warn("Could not delete stale model cache " + path + ", trying again next launch", e);
+				return;
+			}
+		}
+
+		try (Stream<Path> walk = Files.walk(trash)) {
+			for (Path p : (Iterable<Path>) walk.sorted(Comparator.reverseOrder())::iterator) {
+				try {
+					Files.delete(p);
+				} catch (IOException e) {
+					Backend.log.warn("Could not delete " + p + ", trying again next launch", e);
+				}
+			}
+		} catch (IOException e) {
+			Backend.log.warn("Could not delete " + trash, e);
+		}
+	}
+}
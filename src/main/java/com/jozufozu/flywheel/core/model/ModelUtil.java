@@ -3,9 +3,19 @@ package com.jozufozu.flywheel.core.model;
 import static org.lwjgl.opengl.GL11.GL_QUADS;
 
 
+import java.nio.ByteBuffer;
 import java.util.Collection;
+import java.util.List;
 import java.util.Random;
 
+import javax.annotation.Nullable;
+
+import org.lwjgl.system.MemoryUtil;
+
+import com.jozufozu.flywheel.backend.gl.attrib.CommonAttributes;
+import com.jozufozu.flywheel.backend.gl.attrib.IAttribSpec;
+import com.jozufozu.flywheel.backend.gl.attrib.VertexFormat;
+import com.jozufozu.flywheel.backend.gl.buffer.VecBufferWriter;
 import com.mojang.blaze3d.matrix.MatrixStack;
 
 import net.minecraft.block.BlockRenderType;
@@ -59,4 +69,72 @@ public class ModelUtil {
 		builder.end();
 		return builder;
 	}
+
+	/**
+	 * Find a sphere containing every vertex of a model.
+	 *
+	 * @return {@code {x, y, z, radius}}, or null if the model's format doesn't start with a float vec3 or
+	 * {@link CompactModel compact} position.
+	 */
+	@Nullable
+	public static float[] computeBoundingSphere(IModel model) {
+		VertexFormat format = model.format();
+		List<IAttribSpec> attributes = format.getAttributes();
+
+		if (attributes.isEmpty()) return null;
+
+		IAttribSpec position = attributes.get(0);
+		if (position != CommonAttributes.VEC3 && position != CommonAttributes.COMPACT_POS) return null;
+
+		boolean compact = position == CommonAttributes.COMPACT_POS;
+		int component = compact ? 2 : 4;
+		int stride = format.getStride();
+		int vertexCount = model.vertexCount();
+
+		ByteBuffer buffer = MemoryUtil.memAlloc(model.size());
+		try {
+			model.buffer(VecBufferWriter.of(buffer));
+			long ptr = MemoryUtil.memAddress(buffer);
+
+			float minX = Float.POSITIVE_INFINITY, minY = Float.POSITIVE_INFINITY, minZ = Float.POSITIVE_INFINITY;
+			float maxX = Float.NEGATIVE_INFINITY, maxY = Float.NEGATIVE_INFINITY, maxZ = Float.NEGATIVE_INFINITY;
+			for (int i = 0; i < vertexCount; i++) {
+				long vertex = ptr + (long) i * stride;
+				float x = readPosition(vertex, compact);
+				float y = readPosition(vertex + component, compact);
+				float z = readPosition(vertex + component * 2, compact);
+
+				minX = Math.min(minX, x);
+				minY = Math.min(minY, y);
+				minZ = Math.min(minZ, z);
+				maxX = Math.max(maxX, x);
+				maxY = Math.max(maxY, y);
+				maxZ = Math.max(maxZ, z);
+			}
+
+			float cX = (minX + maxX) * 0.5f;
+			float cY = (minY + maxY) * 0.5f;
+			float cZ = (minZ + maxZ) * 0.5f;
+
+			float radiusSqr = 0;
+			for (int i = 0; i < vertexCount; i++) {
+				long vertex = ptr + (long) i * stride;
+				float dX = readPosition(vertex, compact) - cX;
+				float dY = readPosition(vertex + component, compact) - cY;
+				float dZ = readPosition(vertex + component * 2, compact) - cZ;
+
+				radiusSqr = Math.max(radiusSqr, dX * dX + dY * dY + dZ * dZ);
+			}
+
+			return new float[]{cX, cY, cZ, (float) Math.sqrt(radiusSqr)};
+		} finally {
+			MemoryUtil.memFree(buffer);
+		}
+	}
+
+	private static float readPosition(long address, boolean compact) {
+		if (compact) return CompactModel.decodePosition(MemoryUtil.memGetShort(address));
+
+		return MemoryUtil.memGetFloat(address);
+	}
 }
@@ -0,0 +1,132 @@
+package com.jozufozu.flywheel.core.model;
+
+import java.nio.ByteBuffer;
+
+import javax.annotation.Nullable;
+
+import org.lwjgl.system.MemoryUtil;
+
+import com.jozufozu.flywheel.backend.gl.attrib.VertexFormat;
+import com.jozufozu.flywheel.backend.gl.buffer.VecBuffer;
+import com.jozufozu.flywheel.backend.gl.buffer.VecBufferWriter;
+import com.jozufozu.flywheel.backend.model.ElementBuffer;
+
+/**
+ * A model already written out in its vertex format, ready to be copied straight into a GL buffer.
+ *
+ * <p>
+ *     Blobs are built off the render thread by the {@link com.jozufozu.flywheel.backend.model.PendingModel PendingModel},
+ *     so the render thread only has to copy bytes. The vertex data lives off-heap and has to be {@link #delete freed}
+ *     once it's been uploaded.
+ * </p>
+ */
+public class VertexBlob implements IModel {
+
+	@Nullable
+	private IModel source;
+	private final VertexFormat format;
+	private final int vertexCount;
+	private final boolean owned;
+
+	private ByteBuffer data;
+	@Nullable
+	private final float[] boundingSphere;
+
+	/**
+	 * Write out the given model. Safe to call from any thread, as long as the model is.
+	 */
+	public VertexBlob(IModel source) {
+		this.source = source;
+		this.format = source.format();
+		this.vertexCount = source.vertexCount();
+
+		this.owned = true;
+
+		this.data = MemoryUtil.memAlloc(source.size());
+		source.buffer(VecBufferWriter.of(data));
+
+		this.boundingSphere = ModelUtil.computeBoundingSphere(this);
+	}
+
+	private VertexBlob(VertexFormat format, int vertexCount, ByteBuffer data, @Nullable float[] boundingSphere) {
+		this.format = format;
+		this.vertexCount = vertexCount;
+		this.owned = false;
+		this.data = data;
+		this.boundingSphere = boundingSphere;
+	}
+
+	/**
+	 * Use vertex data that's already in the given format, without copying it.
+	 * The model is indexed as quads, and deleting it leaves the data alone.
+	 *
+	 * @param data           Direct buffer holding exactly {@code vertexCount} vertices, like a mapped file.
+	 * @param boundingSphere The model's bounding sphere, if already known.
+	 */
+	public static VertexBlob wrap(VertexFormat format, int vertexCount, ByteBuffer data, @Nullable float[] boundingSphere) {
+		return new VertexBlob(format, vertexCount, data, boundingSphere);
+	}
+
+	/**
+	 * @return A read only view of the vertex data.
+	 */
+	public ByteBuffer getData() {
+		return data.asReadOnlyBuffer();
+	}
+
+	/**
+	 * @return The bounding sphere of the model, or null if its format has no position to compute it from.
+	 * @see ModelUtil#computeBoundingSphere
+	 */
+	@Nullable
+	public float[] getBoundingSphere() {
+		return boundingSphere;
+	}
+
+	@Override
+	public void buffer(VecBuffer buffer) {
+		ByteBuffer src = data.duplicate();
+		buffer.unwrap()
+				.put(src);
+	}
+
+	@Override
+	public void buffer(VecBufferWriter writer) {
+		int size = size();
+		writer.reserve(size);
+		MemoryUtil.memCopy(MemoryUtil.memAddress(data), writer.address(), size);
+		writer.skip(size);
+	}
+
+	@Override
+	public int vertexCount() {
+		return vertexCount;
+	}
+
+	@Override
+	public VertexFormat format() {
+		return format;
+	}
+
+	/**
+	 * Index the vertices the same way the model this was written from does.
+	 * Has to be called on the render thread.
+	 */
+	@Override
+	public ElementBuffer createEBO() {
+		if (source == null) return IModel.super.createEBO();
+
+		return source.createEBO();
+	}
+
+	/**
+	 * Free the vertex data, unless it was {@link #wrap wrapped}, and let go of the source model. The blob can't be uploaded anymore afterwards.
+	 */
+	public void delete() {
+		if (data != null && owned) {
+			MemoryUtil.memFree(data);
+		}
+		data = null;
+		source = null;
+	}
+}
@@ -4,6 +4,7 @@ import java.util.Collection;
 
 import com.jozufozu.flywheel.backend.gl.attrib.VertexFormat;
 import com.jozufozu.flywheel.backend.gl.buffer.VecBuffer;
+import com.jozufozu.flywheel.backend.gl.buffer.VecBufferWriter;
 import com.jozufozu.flywheel.core.Formats;
 import com.jozufozu.flywheel.util.BufferBuilderReader;
 
@@ -40,6 +41,26 @@ public class WorldModel implements IModel {
 		}
 	}
 
+	@Override
+	public void buffer(VecBufferWriter writer) {
+		int vertexCount = vertexCount();
+		int stride = format().getStride();
+
+		for (int i = 0; i < vertexCount; i++) {
+			int light = reader.getLight(i);
+
+			byte block = (byte) (LightTexture.block(light) << 4);
+			byte sky = (byte) (LightTexture.sky(light) << 4);
+
+			writer.reserve(stride)
+					.putVec3(reader.getX(i), reader.getY(i), reader.getZ(i))
+					.putVec3(reader.getNX(i), reader.getNY(i), reader.getNZ(i))
+					.putVec2(reader.getU(i), reader.getV(i))
+					.putColor(reader.getR(i), reader.getG(i), reader.getB(i), reader.getA(i))
+					.putVec2(block, sky);
+		}
+	}
+
 	@Override
 	public int vertexCount() {
 		return reader.getVertexCount();
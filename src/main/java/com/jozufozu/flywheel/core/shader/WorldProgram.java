@@ -10,11 +10,15 @@ import com.jozufozu.flywheel.core.shader.extension.IProgramExtension;
 import com.jozufozu.flywheel.util.AnimationTickHolder;
 
 import net.minecraft.util.math.vector.Matrix4f;
+import net.minecraft.util.math.vector.Vector3i;
 
 public class WorldProgram extends ExtensibleGlProgram {
 	protected final int uTime;
+	protected final int uTick;
+	protected final int uPartialTicks;
 	protected final int uViewProjection;
 	protected final int uCameraPos;
+	protected final int uOriginOffset;
 
 	protected int uBlockAtlas;
 	protected int uLightMap;
@@ -22,8 +26,11 @@ public class WorldProgram extends ExtensibleGlProgram {
 	public WorldProgram(Program program, List<IProgramExtension> extensions) {
 		super(program, extensions);
 		uTime = getUniformLocation("uTime");
+		uTick = getUniformLocation("uTick");
+		uPartialTicks = getUniformLocation("uPartialTicks");
 		uViewProjection = getUniformLocation("uViewProjection");
 		uCameraPos = getUniformLocation("uCameraPos");
+		uOriginOffset = getUniformLocation("uOriginOffset");
 
 		super.bind();
 		registerSamplers();
@@ -43,14 +50,27 @@ public class WorldProgram extends ExtensibleGlProgram {
 		glUniform3f(uCameraPos, (float) camX, (float) camY, (float) camZ);
 	}
 
-	public void uploadTime(float renderTime) {
-		glUniform1f(uTime, renderTime);
+	/**
+	 * Upload how far instance positions have to be moved to be relative to the same origin as the camera.
+	 */
+	public void uploadOriginOffset(Vector3i offset) {
+		glUniform3f(uOriginOffset, offset.getX(), offset.getY(), offset.getZ());
+	}
+
+	/**
+	 * Upload the time on the {@link AnimationTickHolder} clock. Far into the clock a float only holds the partial ticks
+	 * to an eighth of a tick, so they're also uploaded on their own for anything that blends between ticks.
+	 */
+	public void uploadTime(int ticks, float partialTicks) {
+		glUniform1f(uTime, ticks + partialTicks);
+		glUniform1f(uTick, ticks);
+		glUniform1f(uPartialTicks, partialTicks);
 	}
 
 	@Override
 	public void bind() {
 		super.bind();
 
-		uploadTime(AnimationTickHolder.getRenderTime());
+		uploadTime(AnimationTickHolder.getTicks(), AnimationTickHolder.getPartialTicks());
 	}
 }
@@ -3,13 +3,19 @@ package com.jozufozu.flywheel.event;
 import java.util.ArrayList;
 
 import com.jozufozu.flywheel.backend.Backend;
+import com.jozufozu.flywheel.backend.instancing.CreationQueue;
+import com.jozufozu.flywheel.backend.instancing.InstanceManager;
 import com.jozufozu.flywheel.backend.instancing.InstancedRenderDispatcher;
+import com.jozufozu.flywheel.backend.instancing.JobSystem;
+import com.jozufozu.flywheel.backend.model.ModelArena;
 
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.world.ClientWorld;
+import net.minecraft.util.math.ChunkPos;
 import net.minecraft.world.IWorld;
 import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.client.event.RenderGameOverlayEvent;
+import net.minecraftforge.event.world.ChunkEvent;
 import net.minecraftforge.event.world.WorldEvent;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.common.Mod;
@@ -33,9 +39,28 @@ public class ForgeEvents {
 				right.add(9, "");
 				right.add(10, text);
 			}
+
+			ClientWorld world = Minecraft.getInstance().level;
+			if (world != null && Backend.getInstance()
+					.canUseInstancing(world)) {
+				int index = right.indexOf(text) + 1;
+				right.add(index, "Queued: " + describeQueue(InstancedRenderDispatcher.getTiles(world)
+						.getCreationQueue()) + " tiles, " + describeQueue(InstancedRenderDispatcher.getEntities(world)
+						.getCreationQueue()) + " entities");
+				right.add(index + 1, "Deduplicated models: " + ModelArena.getTotalDeduplicatedBytes() / 1024 + " KiB");
+
+				InstanceManager<?> tiles = InstancedRenderDispatcher.getTiles(world);
+				InstanceManager<?> entities = InstancedRenderDispatcher.getEntities(world);
+				right.add(index + 2, "Jobs: " + JobSystem.get()
+						.getWorkers() + " workers, tick " + (tiles.getTickMicros() + entities.getTickMicros()) + "us, frame " + (tiles.getFrameMicros() + entities.getFrameMicros()) + "us");
+			}
 		}
 	}
 
+	private static String describeQueue(CreationQueue<?> queue) {
+		return queue.getQueueDepth() + " (+" + queue.getCreatedLastFrame() + " in " + queue.getMicrosLastFrame() + "us)";
+	}
+
 	@SubscribeEvent
 	public static void onLoadWorld(WorldEvent.Load event) {
 		IWorld world = event.getWorld();
@@ -45,4 +70,19 @@ public class ForgeEvents {
 		}
 	}
 
+	@SubscribeEvent
+	public static void onUnloadChunk(ChunkEvent.Unload event) {
+		IWorld world = event.getWorld();
+
+		if (Backend.isFlywheelWorld(world)) {
+			ChunkPos pos = event.getChunk()
+					.getPos();
+
+			InstancedRenderDispatcher.getTiles(world)
+					.onChunkUnload(pos.x, pos.z);
+			InstancedRenderDispatcher.getEntities(world)
+					.onChunkUnload(pos.x, pos.z);
+		}
+	}
+
 }
@@ -1,25 +1,18 @@
 package com.jozufozu.flywheel.mixin.light;
 
-import java.util.Arrays;
-
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 
 import com.jozufozu.flywheel.backend.RenderWork;
-import com.jozufozu.flywheel.backend.instancing.InstanceManager;
 import com.jozufozu.flywheel.backend.instancing.InstancedRenderDispatcher;
 import com.jozufozu.flywheel.light.LightUpdater;
 
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.network.play.ClientPlayNetHandler;
 import net.minecraft.client.world.ClientWorld;
-import net.minecraft.entity.Entity;
 import net.minecraft.network.play.server.SUpdateLightPacket;
-import net.minecraft.tileentity.TileEntity;
-import net.minecraft.util.ClassInheritanceMultiMap;
-import net.minecraft.world.chunk.Chunk;
 
 @Mixin(ClientPlayNetHandler.class)
 public class NetworkLightUpdateMixin {
@@ -34,21 +27,10 @@ public class NetworkLightUpdateMixin {
 			int chunkX = packet.getX();
 			int chunkZ = packet.getZ();
 
-			Chunk chunk = world.getChunkSource()
-					.getChunk(chunkX, chunkZ, false);
-
-			if (chunk != null) {
-				InstanceManager<TileEntity> tiles = InstancedRenderDispatcher.getTiles(world);
-				InstanceManager<Entity> entities = InstancedRenderDispatcher.getEntities(world);
-
-				chunk.getBlockEntities()
-						.values()
-						.forEach(tiles::onLightUpdate);
-
-				Arrays.stream(chunk.getEntitySections())
-						.flatMap(ClassInheritanceMultiMap::stream)
-						.forEach(entities::onLightUpdate);
-			}
+			InstancedRenderDispatcher.getTiles(world)
+					.onChunkLightUpdate(chunkX, chunkZ);
+			InstancedRenderDispatcher.getEntities(world)
+					.onChunkLightUpdate(chunkX, chunkZ);
 
 			LightUpdater.getInstance()
 					.onLightPacket(world, chunkX, chunkZ);
@@ -4,6 +4,12 @@ import net.minecraft.client.Minecraft;
 
 public class AnimationTickHolder {
 
+	/**
+	 * The clock wraps around every 24 hours so it keeps enough floating point precision.
+	 * Has to match {@code FLW_TICK_WRAP} in {@code flywheel:core/time.glsl}.
+	 */
+	public static final int WRAP = 1_728_000;
+
 	private static int ticks;
 	private static int paused_ticks;
 
@@ -15,9 +21,9 @@ public class AnimationTickHolder {
 	public static void tick() {
 		if (!Minecraft.getInstance()
 				.isPaused()) {
-			ticks = (ticks + 1) % 1_728_000; // wrap around every 24 hours so we maintain enough floating point precision
+			ticks = (ticks + 1) % WRAP;
 		} else {
-			paused_ticks = (paused_ticks + 1) % 1_728_000;
+			paused_ticks = (paused_ticks + 1) % WRAP;
 		}
 	}
 
@@ -33,6 +39,15 @@ public class AnimationTickHolder {
 		return getTicks() + getPartialTicks();
 	}
 
+	/**
+	 * @return How many ticks have passed from a time stamped on this clock until {@code now}, even if the clock
+	 * wrapped around in between. Stamps up to half a wrap ahead of {@code now} are still in the future.
+	 */
+	public static float ticksSince(float now, float stamp) {
+		float dt = now - stamp;
+		return dt < -WRAP * 0.5f ? dt + WRAP : dt;
+	}
+
 	public static float getPartialTicks() {
 		Minecraft mc = Minecraft.getInstance();
 		return (mc.isPaused() ? mc.pausePartialTick : mc.getFrameTime());
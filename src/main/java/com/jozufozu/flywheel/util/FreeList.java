@@ -0,0 +1,79 @@
+package com.jozufozu.flywheel.util;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Tracks the free ranges of some linear space, handing them out first fit.
+ * Released ranges are merged with their neighbours.
+ */
+public class FreeList {
+
+	/**
+	 * Start to length.
+	 */
+	private final TreeMap<Integer, Integer> free = new TreeMap<>();
+
+	/**
+	 * Take a range of the given length.
+	 *
+	 * @return The start of the range, or -1 if no free range is big enough.
+	 */
+	public int allocate(int length) {
+		Iterator<Map.Entry<Integer, Integer>> it = free.entrySet()
+				.iterator();
+
+		while (it.hasNext()) {
+			Map.Entry<Integer, Integer> block = it.next();
+			int start = block.getKey();
+			int blockLength = block.getValue();
+
+			if (blockLength < length) continue;
+
+			it.remove();
+			if (blockLength > length) {
+				free.put(start + length, blockLength - length);
+			}
+			return start;
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Give a range back, or add new space.
+	 */
+	public void release(int start, int length) {
+		if (length <= 0) return;
+
+		Map.Entry<Integer, Integer> before = free.floorEntry(start);
+		if (before != null && before.getKey() + before.getValue() == start) {
+			start = before.getKey();
+			length += before.getValue();
+			free.remove(start);
+		}
+
+		Integer after = free.remove(start + length);
+		if (after != null) {
+			length += after;
+		}
+
+		free.put(start, length);
+	}
+
+	/**
+	 * @return The length of the longest free range.
+	 */
+	public int largest() {
+		int largest = 0;
+		for (int length : free.values()) {
+			largest = Math.max(largest, length);
+		}
+		return largest;
+	}
+
+	public void clear() {
+		free.clear();
+	}
+}
@@ -50,7 +50,46 @@ public class RenderUtil {
 
 	// GPUs want matrices in column major order.
 	public static float[] writeMatrixStack(Matrix4f model, Matrix3f normal) {
-		return new float[]{model.m00, model.m10, model.m20, model.m30, model.m01, model.m11, model.m21, model.m31, model.m02, model.m12, model.m22, model.m32, model.m03, model.m13, model.m23, model.m33, normal.m00, normal.m10, normal.m20, normal.m01, normal.m11, normal.m21, normal.m02, normal.m12, normal.m22,};
+		float[] dest = new float[25];
+		writeMatrixStack(model, normal, dest);
+		return dest;
+	}
+
+	public static void writeMatrixStack(MatrixStack stack, float[] dest) {
+		writeMatrixStack(stack.last()
+								 .pose(), stack.last()
+								 .normal(), dest);
+	}
+
+	/**
+	 * Write a model matrix followed by its normal matrix into an existing array of at least 25 floats.
+	 */
+	public static void writeMatrixStack(Matrix4f model, Matrix3f normal, float[] dest) {
+		dest[0] = model.m00;
+		dest[1] = model.m10;
+		dest[2] = model.m20;
+		dest[3] = model.m30;
+		dest[4] = model.m01;
+		dest[5] = model.m11;
+		dest[6] = model.m21;
+		dest[7] = model.m31;
+		dest[8] = model.m02;
+		dest[9] = model.m12;
+		dest[10] = model.m22;
+		dest[11] = model.m32;
+		dest[12] = model.m03;
+		dest[13] = model.m13;
+		dest[14] = model.m23;
+		dest[15] = model.m33;
+		dest[16] = normal.m00;
+		dest[17] = normal.m10;
+		dest[18] = normal.m20;
+		dest[19] = normal.m01;
+		dest[20] = normal.m11;
+		dest[21] = normal.m21;
+		dest[22] = normal.m02;
+		dest[23] = normal.m12;
+		dest[24] = normal.m22;
 	}
 
 	public static float[] writeMatrix(Matrix4f model) {
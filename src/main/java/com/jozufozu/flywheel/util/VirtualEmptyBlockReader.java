@@ -0,0 +1,68 @@
+package com.jozufozu.flywheel.util;
+
+import javax.annotation.Nullable;
+
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.fluid.FluidState;
+import net.minecraft.fluid.Fluids;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.Direction;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.IBlockDisplayReader;
+import net.minecraft.world.LightType;
+import net.minecraft.world.level.ColorResolver;
+import net.minecraft.world.lighting.WorldLightManager;
+
+/**
+ * An empty, fully lit world to render models against without touching the client level, so it's safe to use from
+ * any thread. Models come out as if they were floating in the sky: every face is drawn and nothing is tinted.
+ */
+public enum VirtualEmptyBlockReader implements IBlockDisplayReader {
+
+	INSTANCE;
+
+	@Nullable
+	@Override
+	public TileEntity getBlockEntity(BlockPos pos) {
+		return null;
+	}
+
+	@Override
+	public BlockState getBlockState(BlockPos pos) {
+		return Blocks.AIR.defaultBlockState();
+	}
+
+	@Override
+	public FluidState getFluidState(BlockPos pos) {
+		return Fluids.EMPTY.defaultFluidState();
+	}
+
+	@Override
+	public float getShade(Direction direction, boolean shade) {
+		return 1f;
+	}
+
+	/**
+	 * There's no light engine, everything is as bright as it gets. See {@link #getBrightness}.
+	 */
+	@Override
+	public WorldLightManager getLightEngine() {
+		throw new UnsupportedOperationException("The empty world has no light engine");
+	}
+
+	@Override
+	public int getBrightness(LightType type, BlockPos pos) {
+		return type.surrounding;
+	}
+
+	@Override
+	public int getRawBrightness(BlockPos pos, int darkening) {
+		return Math.max(0, 15 - darkening);
+	}
+
+	@Override
+	public int getBlockTint(BlockPos pos, ColorResolver resolver) {
+		return -1;
+	}
+}
@@ -1,51 +1,63 @@
 package com.jozufozu.flywheel.vanilla;
 
-import com.jozufozu.flywheel.backend.instancing.IDynamicInstance;
+import com.jozufozu.flywheel.backend.instancing.ITickableInstance;
 import com.jozufozu.flywheel.backend.instancing.tile.TileEntityInstance;
 import com.jozufozu.flywheel.backend.material.MaterialManager;
 import com.jozufozu.flywheel.core.Materials;
-import com.jozufozu.flywheel.core.materials.OrientedData;
+import com.jozufozu.flywheel.core.materials.AnimatedData;
 import com.jozufozu.flywheel.core.model.ModelPart;
-import com.jozufozu.flywheel.util.AnimationTickHolder;
+import com.jozufozu.flywheel.util.transform.MatrixTransformStack;
 
 import net.minecraft.client.renderer.tileentity.BellTileEntityRenderer;
 import net.minecraft.tileentity.BellTileEntity;
-import net.minecraft.util.math.MathHelper;
-import net.minecraft.util.math.vector.Quaternion;
-import net.minecraft.util.math.vector.Vector3f;
+import net.minecraft.util.Direction;
 
-public class BellInstance extends TileEntityInstance<BellTileEntity> implements IDynamicInstance {
+public class BellInstance extends TileEntityInstance<BellTileEntity> implements ITickableInstance {
 
-	private final OrientedData bell;
+	// how long a bell rings for, see BellTileEntity.tick
+	private static final int RING_TICKS = 50;
 
-	private float lastRingTime = Float.NaN;
+	private final AnimatedData bell;
+
+	private Direction clickDirection;
 
 	public BellInstance(MaterialManager<?> materialManager, BellTileEntity tile) {
 		super(materialManager, tile);
 
-		bell = createBellInstance()
-				.setPivot(0.5f, 0.75f, 0.5f)
-				.setPosition(getInstancePosition());
-	}
+		MatrixTransformStack stack = new MatrixTransformStack();
+		stack.translate(getInstancePosition());
 
-	@Override
-	public void beginFrame() {
-		float ringTime = (float)tile.ticks + AnimationTickHolder.getPartialTicks();
+		bell = createBellInstance();
+		bell.setTransform(stack.unwrap());
+		bell.setPivot(0.5f, 0.75f, 0.5f)
+				.setCurve(AnimatedData.Curve.DAMPED_SWING, 1, 0);
 
-		if (ringTime == lastRingTime) return;
-		lastRingTime = ringTime;
+		tick();
+	}
 
+	@Override
+	public void tick() {
 		if (tile.shaking) {
-			float angle = MathHelper.sin(ringTime / (float) Math.PI) / (4.0F + ringTime / 3.0F);
+			if (tile.clickDirection != clickDirection) {
+				clickDirection = tile.clickDirection;
+				bell.setAxis(clickDirection.getCounterClockWise()
+						.step());
+			}
 
-			Vector3f ringAxis = tile.clickDirection.getCounterClockWise().step();
-
-			bell.setRotation(ringAxis.rotation(angle));
+			bell.track(tile.ticks, tile.ticks + 1, 0, RING_TICKS);
 		} else {
-			bell.setRotation(Quaternion.ONE);
+			bell.track(0, 0, 0, RING_TICKS);
 		}
 	}
 
+	/**
+	 * {@link AnimatedData#track track} has to see every tick to notice when the bell starts or stops ringing.
+	 */
+	@Override
+	public boolean decreaseTickRateWithDistance() {
+		return false;
+	}
+
 	@Override
 	public void updateLight() {
 		relight(getWorldPosition(), bell);
@@ -56,9 +68,9 @@ public class BellInstance extends TileEntityInstance<BellTileEntity> implements
 		bell.delete();
 	}
 
-	private OrientedData createBellInstance() {
+	private AnimatedData createBellInstance() {
         return materialManager.defaultCutout()
-                .material(Materials.ORIENTED)
+                .material(Materials.ANIMATED)
 				.model(tile.getType(), BellInstance::createBellModel)
 				.createInstance();
 	}
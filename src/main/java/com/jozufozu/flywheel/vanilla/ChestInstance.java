@@ -4,15 +4,14 @@ import java.util.Calendar;
 
 import javax.annotation.Nonnull;
 
-import com.jozufozu.flywheel.backend.instancing.IDynamicInstance;
+import com.jozufozu.flywheel.backend.instancing.ITickableInstance;
 import com.jozufozu.flywheel.backend.instancing.tile.TileEntityInstance;
 import com.jozufozu.flywheel.backend.material.MaterialManager;
 import com.jozufozu.flywheel.backend.state.TextureRenderState;
 import com.jozufozu.flywheel.core.Materials;
-import com.jozufozu.flywheel.core.materials.ModelData;
+import com.jozufozu.flywheel.core.materials.AnimatedData;
 import com.jozufozu.flywheel.core.materials.OrientedData;
 import com.jozufozu.flywheel.core.model.ModelPart;
-import com.jozufozu.flywheel.util.AnimationTickHolder;
 import com.jozufozu.flywheel.util.transform.MatrixTransformStack;
 
 import it.unimi.dsi.fastutil.floats.Float2FloatFunction;
@@ -29,10 +28,10 @@ import net.minecraft.tileentity.TileEntityMerger;
 import net.minecraft.util.math.vector.Quaternion;
 import net.minecraft.util.math.vector.Vector3f;
 
-public class ChestInstance<T extends TileEntity & IChestLid> extends TileEntityInstance<T> implements IDynamicInstance {
+public class ChestInstance<T extends TileEntity & IChestLid> extends TileEntityInstance<T> implements ITickableInstance {
 
 	private final OrientedData body;
-	private final ModelData lid;
+	private final AnimatedData lid;
 
 	private final Float2FloatFunction lidProgress;
 	private final RenderMaterial renderMaterial;
@@ -40,8 +39,6 @@ public class ChestInstance<T extends TileEntity & IChestLid> extends TileEntityI
 	private final ChestType chestType;
 	private final Quaternion baseRotation;
 
-	private float lastProgress = Float.NaN;
-
 	public ChestInstance(MaterialManager<?> materialManager, T tile) {
 		super(materialManager, tile);
 
@@ -76,20 +73,6 @@ public class ChestInstance<T extends TileEntity & IChestLid> extends TileEntityI
 			baseRotation = Quaternion.ONE;
 			lidProgress = $ -> 0f;
 		}
-	}
-
-	@Override
-	public void beginFrame() {
-		float progress = lidProgress.get(AnimationTickHolder.getPartialTicks());
-
-		if (lastProgress == progress) return;
-
-		lastProgress = progress;
-
-		progress = 1.0F - progress;
-		progress = 1.0F - progress * progress * progress;
-
-		float angleX = -(progress * ((float) Math.PI / 2F));
 
 		MatrixTransformStack stack = new MatrixTransformStack();
 
@@ -97,13 +80,27 @@ public class ChestInstance<T extends TileEntity & IChestLid> extends TileEntityI
 				.translate(0, 9f/16f, 0)
 				.centre()
 				.multiply(baseRotation)
-				.unCentre()
-				.translate(0, 0, 1f / 16f)
-				.multiply(Vector3f.XP.rotation(angleX))
-				.translate(0, 0, -1f / 16f);
+				.unCentre();
 
 		lid.setTransform(stack.unwrap());
+		lid.setPivot(0, 0, 1f / 16f)
+				.setAxis(Vector3f.XP)
+				.setCurve(AnimatedData.Curve.CUBIC_OUT, -(float) Math.PI / 2F, 0);
+
+		tick();
+	}
 
+	@Override
+	public void tick() {
+		lid.track(lidProgress.get(0), lidProgress.get(1), 0, 1);
+	}
+
+	/**
+	 * {@link AnimatedData#track track} has to see every tick to notice when the lid starts or stops moving.
+	 */
+	@Override
+	public boolean decreaseTickRateWithDistance() {
+		return false;
 	}
 
 	@Override
@@ -125,10 +122,10 @@ public class ChestInstance<T extends TileEntity & IChestLid> extends TileEntityI
 				.createInstance();
 	}
 
-	private ModelData lidInstance() {
+	private AnimatedData lidInstance() {
 
 		return materialManager.solid(TextureRenderState.get(renderMaterial.atlasLocation()))
-                .material(Materials.TRANSFORMED)
+                .material(Materials.ANIMATED)
 				.model("lid_" + renderMaterial.texture(), this::getLidModel)
 				.createInstance();
 	}
@@ -1,12 +1,12 @@
 package com.jozufozu.flywheel.vanilla;
 
-import com.jozufozu.flywheel.backend.instancing.IDynamicInstance;
+import com.jozufozu.flywheel.backend.instancing.ITickableInstance;
 import com.jozufozu.flywheel.backend.instancing.tile.TileEntityInstance;
 import com.jozufozu.flywheel.backend.material.MaterialManager;
 import com.jozufozu.flywheel.core.Materials;
+import com.jozufozu.flywheel.core.materials.AnimatedData;
 import com.jozufozu.flywheel.core.materials.ModelData;
 import com.jozufozu.flywheel.core.model.ModelPart;
-import com.jozufozu.flywheel.util.AnimationTickHolder;
 import com.jozufozu.flywheel.util.transform.MatrixTransformStack;
 
 import net.minecraft.block.ShulkerBoxBlock;
@@ -16,17 +16,13 @@ import net.minecraft.item.DyeColor;
 import net.minecraft.tileentity.ShulkerBoxTileEntity;
 import net.minecraft.util.Direction;
 import net.minecraft.util.math.vector.Quaternion;
-import net.minecraft.util.math.vector.Vector3f;
 
-public class ShulkerBoxInstance extends TileEntityInstance<ShulkerBoxTileEntity> implements IDynamicInstance {
+public class ShulkerBoxInstance extends TileEntityInstance<ShulkerBoxTileEntity> implements ITickableInstance {
 
 	private final TextureAtlasSprite texture;
 
 	private final ModelData base;
-	private final ModelData lid;
-	private final MatrixTransformStack stack;
-
-	private float lastProgress = Float.NaN;
+	private final AnimatedData lid;
 
 	public ShulkerBoxInstance(MaterialManager<?> materialManager, ShulkerBoxTileEntity tile) {
 		super(materialManager, tile);
@@ -39,7 +35,7 @@ public class ShulkerBoxInstance extends TileEntityInstance<ShulkerBoxTileEntity>
 		}
 		Quaternion rotation = getDirection().getRotation();
 
-		stack = new MatrixTransformStack();
+		MatrixTransformStack stack = new MatrixTransformStack();
 
 		stack.translate(getInstancePosition())
 				.scale(0.9995f)
@@ -52,27 +48,27 @@ public class ShulkerBoxInstance extends TileEntityInstance<ShulkerBoxTileEntity>
 
 		stack.translateY(0.25);
 
-		lid = makeLidInstance().setTransform(stack.unwrap());
+		lid = makeLidInstance();
+		lid.setTransform(stack.unwrap());
+		// spins 270 degrees while rising half a block
+		lid.setPivot(0.5f, 0, 0.5f)
+				.setAxis(0, 1, 0)
+				.setCurve(AnimatedData.Curve.LINEAR, (float) Math.toRadians(270), 0.5f);
+
+		tick();
 	}
 
 	@Override
-	public void beginFrame() {
-		float progress = tile.getProgress(AnimationTickHolder.getPartialTicks());
-
-		if (progress == lastProgress) return;
-		lastProgress = progress;
-
-		Quaternion spin = Vector3f.YP.rotationDegrees(270.0F * progress);
-
-		stack.push()
-				.centre()
-				.multiply(spin)
-				.unCentre()
-				.translateY(progress * 0.5f);
-
-		lid.setTransform(stack.unwrap());
+	public void tick() {
+		lid.track(tile.getProgress(0), tile.getProgress(1), 0, 1);
+	}
 
-		stack.pop();
+	/**
+	 * {@link AnimatedData#track track} has to see every tick to notice when the lid starts or stops moving.
+	 */
+	@Override
+	public boolean decreaseTickRateWithDistance() {
+		return false;
 	}
 
 	@Override
@@ -93,9 +89,9 @@ public class ShulkerBoxInstance extends TileEntityInstance<ShulkerBoxTileEntity>
 				.createInstance();
 	}
 
-	private ModelData makeLidInstance() {
+	private AnimatedData makeLidInstance() {
         return materialManager.cutout(RenderStates.SHULKER)
-                .material(Materials.TRANSFORMED)
+                .material(Materials.ANIMATED)
 				.model("lid_" + texture.getName(), this::makeLidModel)
 				.createInstance();
 	}
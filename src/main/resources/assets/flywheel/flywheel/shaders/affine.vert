@@ -0,0 +1,44 @@
+#flwbuiltins
+#flwinclude <"flywheel:data/modelvertex.glsl">
+#flwinclude <"flywheel:core/diffuse.glsl">
+
+#flwinclude <"flywheel:data/blockfragment.glsl">
+
+#[InstanceData]
+struct Affine {
+    vec2 light;
+    vec4 color;
+    vec4 row0;
+    vec4 row1;
+    vec4 row2;
+};
+
+BlockFrag FLWMain(Vertex v, Affine i) {
+    vec4 pos = vec4(v.pos, 1.);
+    vec4 worldPos = vec4(dot(i.row0, pos), dot(i.row1, pos), dot(i.row2, pos), 1.);
+
+    // the cofactor matrix is the inverse transpose up to scale, which the normalize below takes care of
+    vec3 c0 = vec3(i.row0.x, i.row1.x, i.row2.x);
+    vec3 c1 = vec3(i.row0.y, i.row1.y, i.row2.y);
+    vec3 c2 = vec3(i.row0.z, i.row1.z, i.row2.z);
+    vec3 x = cross(c1, c2);
+    mat3 normalMat = mat3(x, cross(c2, c0), cross(c0, c1)) * sign(dot(c0, x));
+
+    vec3 norm = normalMat * v.normal;
+
+    FLWFinalizeWorldPos(worldPos);
+    FLWFinalizeNormal(norm);
+
+    norm = normalize(norm);
+
+    BlockFrag b;
+    b.diffuse = diffuse(norm);
+    b.texCoords = v.texCoords;
+    b.light = i.light;
+    #if defined(DEBUG_NORMAL)
+    b.color = vec4(norm, 1.);
+    #else
+    b.color = i.color;
+    #endif
+    return b;
+}
@@ -0,0 +1,64 @@
+#flwbuiltins
+#flwinclude <"flywheel:data/modelvertex.glsl">
+#flwinclude <"flywheel:core/quaternion.glsl">
+#flwinclude <"flywheel:core/diffuse.glsl">
+#flwinclude <"flywheel:core/time.glsl">
+
+#flwinclude <"flywheel:data/blockfragment.glsl">
+
+#[InstanceData]
+struct Animated {
+    vec2 light;
+    vec4 color;
+    vec4 row0;
+    vec4 row1;
+    vec4 row2;
+    vec3 pivot;
+    vec3 axis;
+    // start tick, duration in ticks, progress at the start, progress at the end
+    vec4 timing;
+    // easing curve, radians per unit of progress, blocks per unit of progress
+    vec3 curve;
+};
+
+// has to match AnimatedData.Curve
+float FLWEase(float curve, float p) {
+    if (curve < 0.5) {
+        return p;
+    } else if (curve < 1.5) {
+        float q = 1. - p;
+        return 1. - q * q * q;
+    } else {
+        return sin(p / 3.1415926536) / (4. + p / 3.);
+    }
+}
+
+BlockFrag FLWMain(Vertex v, Animated a) {
+    float t = clamp((ticksSince(uTick, a.timing.x) + uPartialTicks) / a.timing.y, 0., 1.);
+    float e = FLWEase(a.curve.x, mix(a.timing.z, a.timing.w, t));
+
+    float halfAngle = e * a.curve.y * 0.5;
+    vec4 rotation = vec4(a.axis * sin(halfAngle), cos(halfAngle));
+
+    vec4 pos = vec4(rotateVertexByQuat(v.pos - a.pivot, rotation) + a.pivot + a.axis * (e * a.curve.z), 1.);
+    vec4 worldPos = vec4(dot(a.row0, pos), dot(a.row1, pos), dot(a.row2, pos), 1.);
+
+    vec3 norm = rotateVertexByQuat(v.normal, rotation);
+    norm = vec3(dot(a.row0.xyz, norm), dot(a.row1.xyz, norm), dot(a.row2.xyz, norm));
+
+    FLWFinalizeWorldPos(worldPos);
+    FLWFinalizeNormal(norm);
+
+    norm = normalize(norm);
+
+    BlockFrag b;
+    b.diffuse = diffuse(norm);
+    b.texCoords = v.texCoords;
+    b.light = a.light;
+    #if defined(DEBUG_NORMAL)
+    b.color = vec4(norm, 1.);
+    #else
+    b.color = a.color;
+    #endif
+    return b;
+}
@@ -1,12 +1,19 @@
 uniform float uTime;
+// uTime split in two, which keeps the partial ticks precise however high the tick count is
+uniform float uTick;
+uniform float uPartialTicks;
 uniform mat4 uViewProjection;
 uniform vec3 uCameraPos;
+// instances are relative to an origin that rarely moves, the camera to one that follows it
+uniform vec3 uOriginOffset;
 
 #if defined(USE_FOG)
 varying float FragDistance;
 #endif
 
 void FLWFinalizeWorldPos(inout vec4 worldPos) {
+    worldPos.xyz += uOriginOffset;
+
     #if defined(USE_FOG)
     FragDistance = length(worldPos.xyz - uCameraPos);
     #endif
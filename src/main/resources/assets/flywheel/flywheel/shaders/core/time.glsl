@@ -0,0 +1,9 @@
+// must match AnimationTickHolder.WRAP
+#define FLW_TICK_WRAP 1728000.
+
+// Ticks from a time stamped on the AnimationTickHolder clock until now, across the clock wrapping around.
+// Stamps up to half a wrap in the future stay in the future.
+float ticksSince(float now, float stamp) {
+    float dt = now - stamp;
+    return dt < -FLW_TICK_WRAP * 0.5 ? dt + FLW_TICK_WRAP : dt;
+}
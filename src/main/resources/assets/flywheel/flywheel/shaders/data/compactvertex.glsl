@@ -0,0 +1,32 @@
+// must match CompactModel.POSITION_RANGE
+#define FLW_COMPACT_POS_RANGE 16.
+
+#[VertexData]
+struct CompactVertex {
+    vec3 pos;
+    vec2 normal;
+    vec2 texCoords;
+};
+
+struct Vertex {
+    vec3 pos;
+    vec3 normal;
+    vec2 texCoords;
+};
+
+vec3 decodeOctahedral(vec2 e) {
+    vec3 n = vec3(e.x, 1. - abs(e.x) - abs(e.y), e.y);
+    if (n.y < 0.) {
+        vec2 s = vec2(n.x >= 0. ? 1. : -1., n.z >= 0. ? 1. : -1.);
+        n.xz = (1. - abs(n.zx)) * s;
+    }
+    return normalize(n);
+}
+
+Vertex FLWUnpackVertex(CompactVertex c) {
+    Vertex v;
+    v.pos = c.pos * FLW_COMPACT_POS_RANGE;
+    v.normal = decodeOctahedral(c.normal);
+    v.texCoords = c.texCoords;
+    return v;
+}
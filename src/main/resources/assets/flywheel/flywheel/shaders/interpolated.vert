@@ -0,0 +1,48 @@
+#flwbuiltins
+#flwinclude <"flywheel:data/modelvertex.glsl">
+#flwinclude <"flywheel:core/matutils.glsl">
+#flwinclude <"flywheel:core/quaternion.glsl">
+#flwinclude <"flywheel:core/diffuse.glsl">
+#flwinclude <"flywheel:core/time.glsl">
+
+#[InstanceData]
+struct Interpolated {
+    vec2 light;
+    vec4 color;
+    vec3 prevPos;
+    vec3 pos;
+    vec3 pivot;
+    vec4 prevRotation;
+    vec4 rotation;
+    float tick;
+};
+
+#flwinclude <"flywheel:data/blockfragment.glsl">
+
+BlockFrag FLWMain(Vertex v, Interpolated o) {
+    // 0 at the tick the instance was written, holding at 1 if it isn't written again
+    float t = clamp(ticksSince(uTick, o.tick) + uPartialTicks, 0., 1.);
+
+    vec3 pos = mix(o.prevPos, o.pos, t);
+    // take the short way around
+    vec4 prevRotation = dot(o.prevRotation, o.rotation) < 0. ? -o.prevRotation : o.prevRotation;
+    vec4 rotation = normalize(mix(prevRotation, o.rotation, t));
+
+    vec4 worldPos = vec4(rotateVertexByQuat(v.pos - o.pivot, rotation) + o.pivot + pos, 1.);
+
+    vec3 norm = rotateVertexByQuat(v.normal, rotation);
+
+    FLWFinalizeWorldPos(worldPos);
+    FLWFinalizeNormal(norm);
+
+    BlockFrag b;
+    b.diffuse = diffuse(norm);
+    b.texCoords = v.texCoords;
+    b.light = o.light;
+    #if defined(DEBUG_NORMAL)
+    b.color = vec4(norm, 1.);
+    #else
+    b.color = o.color;
+    #endif
+    return b;
+}
@@ -0,0 +1,34 @@
+// the vertex data has to be included before this, defining Vertex
+#flwinclude <"flywheel:core/diffuse.glsl">
+
+#flwinclude <"flywheel:data/blockfragment.glsl">
+
+#[InstanceData]
+struct Instance {
+    vec2 light;
+    vec4 color;
+    mat4 transform;
+    mat3 normalMat;
+};
+
+BlockFrag FLWMain(Vertex v, Instance i) {
+    vec4 worldPos = i.transform * vec4(v.pos, 1.);
+
+    vec3 norm = i.normalMat * v.normal;
+
+    FLWFinalizeWorldPos(worldPos);
+    FLWFinalizeNormal(norm);
+
+    norm = normalize(norm);
+
+    BlockFrag b;
+    b.diffuse = diffuse(norm);
+    b.texCoords = v.texCoords;
+    b.light = i.light;
+    #if defined(DEBUG_NORMAL)
+    b.color = vec4(norm, 1.);
+    #else
+    b.color = i.color;
+    #endif
+    return b;
+}
@@ -0,0 +1,7 @@
+#flwbuiltins
+#flwinclude <"flywheel:data/compactvertex.glsl">
+#flwinclude <"flywheel:model.glsl">
+
+BlockFrag FLWMain(CompactVertex v, Instance i) {
+    return FLWMain(FLWUnpackVertex(v), i);
+}
@@ -0,0 +1,35 @@
+// the vertex data has to be included before this, defining Vertex
+#flwinclude <"flywheel:core/matutils.glsl">
+#flwinclude <"flywheel:core/quaternion.glsl">
+#flwinclude <"flywheel:core/diffuse.glsl">
+
+#[InstanceData]
+struct Oriented {
+    vec2 light;
+    vec4 color;
+    vec3 pos;
+    vec3 pivot;
+    vec4 rotation;
+};
+
+#flwinclude <"flywheel:data/blockfragment.glsl">
+
+BlockFrag FLWMain(Vertex v, Oriented o) {
+    vec4 worldPos = vec4(rotateVertexByQuat(v.pos - o.pivot, o.rotation) + o.pivot + o.pos, 1.);
+
+    vec3 norm = rotateVertexByQuat(v.normal, o.rotation);
+
+    FLWFinalizeWorldPos(worldPos);
+    FLWFinalizeNormal(norm);
+
+    BlockFrag b;
+    b.diffuse = diffuse(norm);
+    b.texCoords = v.texCoords;
+    b.light = o.light;
+    #if defined(DEBUG_NORMAL)
+    b.color = vec4(norm, 1.);
+    #else
+    b.color = o.color;
+    #endif
+    return b;
+}
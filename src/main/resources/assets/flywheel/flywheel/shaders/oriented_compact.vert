@@ -0,0 +1,7 @@
+#flwbuiltins
+#flwinclude <"flywheel:data/compactvertex.glsl">
+#flwinclude <"flywheel:oriented.glsl">
+
+BlockFrag FLWMain(CompactVertex v, Oriented i) {
+    return FLWMain(FLWUnpackVertex(v), i);
+}